@@ -39,6 +39,27 @@ public class BasicHTTPServer {
         }
     }
 
+    record Request(String method, String path, String httpVersion, Map<String, String> headers) {
+    }
+
+    /** Reads the request line and headers; returns null if the client closed before sending anything. */
+    static Request parseRequest(BufferedReader in) throws IOException {
+        String requestLine = in.readLine();
+        if (requestLine == null) return null;
+
+        Map<String, String> headers = new HashMap<>();
+        String headerLine;
+        while ((headerLine = in.readLine()) != null && !headerLine.isEmpty()) {
+            String[] parts = headerLine.split(": ", 2);
+            if (parts.length == 2) {
+                headers.put(parts[0], parts[1]);
+            }
+        }
+
+        String[] requestParts = requestLine.split(" ");
+        return new Request(requestParts[0], requestParts[1], requestParts[2], headers);
+    }
+
     private class ClientHandler implements Runnable {
         private final Socket clientSocket;
 
@@ -51,26 +72,13 @@ public class BasicHTTPServer {
             try (BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
                  OutputStream out = clientSocket.getOutputStream()) {
 
-                String requestLine = in.readLine();
-                if (requestLine == null) return;
-
-                Map<String, String> headers = new HashMap<>();
-                String headerLine;
-                while ((headerLine = in.readLine()) != null && !headerLine.isEmpty()) {
-                    String[] parts = headerLine.split(": ", 2);
-                    if (parts.length == 2) {
-                        headers.put(parts[0], parts[1]);
-                    }
-                }
-
-                String[] requestParts = requestLine.split(" ");
-                String method = requestParts[0];
-                String path = requestParts[1];
-                String httpVersion = requestParts[2];
+                Request request = parseRequest(in);
+                if (request == null) return;
 
+                String path = request.path();
                 switch (path) {
                     case "/http1.0" -> handleHttp10Response(out);
-                    case "/http1.1" -> handleHttp11Response(out, headers);
+                    case "/http1.1" -> handleHttp11Response(out, request.headers());
                     case "/http2.0" -> handleHttp20Response(out);
                     default -> {
                         if (path.startsWith("/error")) {
@@ -63,6 +63,15 @@ public class CRC {
 		return crc;
 	}
 
+	/** CRC-16/CCITT-FALSE of a byte range, using the same table and initial value as the bit-string version. */
+	static int calculateCRC(byte[] data, int offset, int length) {
+		int crc = 0xFFFF;
+		for (int i = offset; i < offset + length; i++) {
+			crc = ((crc << 8) ^ CRC_TABLE[((crc >>> 8) ^ data[i]) & 0xFF]) & 0xFFFF;
+		}
+		return crc;
+	}
+
 	private static String introduceError(Scanner scanner, String encodedMessage) {
 		System.out.print("Enter the position to flip (1-" + encodedMessage.length() + "): ");
 		int position = scanner.nextInt();
@@ -0,0 +1,151 @@
+/**
+ * Sender-side congestion window policy for the simulated sliding-window sender.
+ * The sender reports ACK progress, duplicate-ACK recovery and timeouts; the policy
+ * answers with a window in frames.
+ */
+public interface CongestionControl {
+    double cwnd();
+
+    /** New data was cumulatively acknowledged outside of fast recovery. */
+    void onAck(int newlyAcked, long now, long srttNs);
+
+    /** Third duplicate ACK: the base frame is being fast-retransmitted. */
+    void onFastRetransmit(long now);
+
+    /** Further duplicate ACK while in fast recovery. */
+    void onDuplicateAck();
+
+    void onRecoveryExit(long now);
+
+    void onTimeout(long now);
+
+    enum Algorithm {
+        FIXED, RENO, CUBIC;
+
+        CongestionControl create(int maxWindow) {
+            return switch (this) {
+                case FIXED -> new Fixed(maxWindow);
+                case RENO -> new Reno(maxWindow);
+                case CUBIC -> new Cubic(maxWindow);
+            };
+        }
+    }
+
+    /** The original behaviour: a constant window. */
+    class Fixed implements CongestionControl {
+        private final int window;
+
+        Fixed(int window) {
+            this.window = window;
+        }
+
+        public double cwnd() { return window; }
+        public void onAck(int newlyAcked, long now, long srttNs) { }
+        public void onFastRetransmit(long now) { }
+        public void onDuplicateAck() { }
+        public void onRecoveryExit(long now) { }
+        public void onTimeout(long now) { }
+    }
+
+    /** Slow start, additive increase, halving on fast retransmit (RFC 5681). */
+    class Reno implements CongestionControl {
+        protected final int maxWindow;
+        protected double cwnd = 2;
+        protected double ssthresh;
+
+        Reno(int maxWindow) {
+            this.maxWindow = maxWindow;
+            this.ssthresh = maxWindow;
+        }
+
+        public double cwnd() {
+            return cwnd;
+        }
+
+        public void onAck(int newlyAcked, long now, long srttNs) {
+            if (cwnd < ssthresh) {
+                cwnd += newlyAcked;
+            } else {
+                congestionAvoidance(newlyAcked, now, srttNs);
+            }
+            cwnd = Math.min(cwnd, maxWindow);
+        }
+
+        protected void congestionAvoidance(int newlyAcked, long now, long srttNs) {
+            cwnd += (double) newlyAcked / cwnd;
+        }
+
+        protected double reducedWindow() {
+            return Math.max(cwnd / 2, 2);
+        }
+
+        public void onFastRetransmit(long now) {
+            ssthresh = reducedWindow();
+            cwnd = ssthresh + 3;
+        }
+
+        public void onDuplicateAck() {
+            cwnd = Math.min(cwnd + 1, maxWindow);
+        }
+
+        public void onRecoveryExit(long now) {
+            cwnd = ssthresh;
+        }
+
+        public void onTimeout(long now) {
+            ssthresh = reducedWindow();
+            cwnd = 1;
+        }
+    }
+
+    /**
+     * CUBIC window growth (RFC 8312): after a reduction the window follows a cubic
+     * in time since the last loss, independent of RTT, with a Reno-friendly floor.
+     */
+    class Cubic extends Reno {
+        private static final double C = 0.4;
+        private static final double BETA = 0.7;
+
+        private double windowMax;
+        private double originPoint;
+        private double k;
+        private double renoEstimate;
+        private long epochStart = -1;
+
+        Cubic(int maxWindow) {
+            super(maxWindow);
+        }
+
+        @Override
+        protected void congestionAvoidance(int newlyAcked, long now, long srttNs) {
+            if (epochStart < 0) {
+                epochStart = now;
+                renoEstimate = cwnd;
+                if (cwnd < windowMax) {
+                    k = Math.cbrt((windowMax - cwnd) / C);
+                    originPoint = windowMax;
+                } else {
+                    k = 0;
+                    originPoint = cwnd;
+                }
+            }
+            double t = (now - epochStart + srttNs) / 1e9;
+            double target = originPoint + C * Math.pow(t - k, 3);
+            if (target > cwnd) {
+                cwnd += (target - cwnd) / cwnd * newlyAcked;
+            } else {
+                cwnd += 0.01 * newlyAcked / cwnd;
+            }
+            renoEstimate += 3 * (1 - BETA) / (1 + BETA) * newlyAcked / renoEstimate;
+            cwnd = Math.max(cwnd, renoEstimate);
+        }
+
+        @Override
+        protected double reducedWindow() {
+            // Fast convergence: release bandwidth sooner when the previous peak was not reached
+            windowMax = cwnd < windowMax ? cwnd * (1 + BETA) / 2 : cwnd;
+            epochStart = -1;
+            return Math.max(cwnd * BETA, 2);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Read access to a graph in compressed sparse row layout: the arcs leaving u are the indices
+ * {@code firstArc(u) .. endArc(u) - 1}. Shortest-path code walks graphs through this, so the same
+ * loop runs over heap arrays ({@link CsrGraph}) and mapped files ({@link TopologyFile.MappedCsrGraph}).
+ */
+public interface CsrAdjacency {
+    int vertexCount();
+
+    int arcCount();
+
+    int firstArc(int u);
+
+    int endArc(int u);
+
+    int target(int arc);
+
+    int weight(int arc);
+}
@@ -0,0 +1,167 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Directed graph in compressed sparse row form: the arcs leaving vertex u are
+ * {@code targets[offsets[u] .. offsets[u + 1])} with matching {@code weights}.
+ * Undirected links are stored as two arcs.
+ */
+public class CsrGraph implements CsrAdjacency {
+    final int[] offsets;
+    final int[] targets;
+    final int[] weights;
+
+    CsrGraph(int[] offsets, int[] targets, int[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override
+    public int vertexCount() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public int arcCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int firstArc(int u) {
+        return offsets[u];
+    }
+
+    @Override
+    public int endArc(int u) {
+        return offsets[u + 1];
+    }
+
+    @Override
+    public int target(int arc) {
+        return targets[arc];
+    }
+
+    @Override
+    public int weight(int arc) {
+        return weights[arc];
+    }
+
+    public int degree(int u) {
+        return offsets[u + 1] - offsets[u];
+    }
+
+    /** Same convention as {@link DijkstraOSPF#dijkstra(int[][], int)}: a positive entry is a link. */
+    public static CsrGraph fromMatrix(int[][] matrix) {
+        int n = matrix.length;
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            int degree = 0;
+            for (int v = 0; v < n; v++) {
+                if (matrix[u][v] > 0) degree++;
+            }
+            offsets[u + 1] = offsets[u] + degree;
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            int arc = offsets[u];
+            for (int v = 0; v < n; v++) {
+                if (matrix[u][v] > 0) {
+                    targets[arc] = v;
+                    weights[arc++] = matrix[u][v];
+                }
+            }
+        }
+        return new CsrGraph(offsets, targets, weights);
+    }
+
+    /** Builds from parallel arc arrays with a counting sort on the source vertex. */
+    public static CsrGraph fromArcs(int vertexCount, int[] from, int[] to, int[] weight, int arcCount) {
+        int[] offsets = new int[vertexCount + 1];
+        for (int i = 0; i < arcCount; i++) {
+            offsets[from[i] + 1]++;
+        }
+        for (int u = 0; u < vertexCount; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        int[] cursor = Arrays.copyOf(offsets, vertexCount);
+        int[] targets = new int[arcCount];
+        int[] weights = new int[arcCount];
+        for (int i = 0; i < arcCount; i++) {
+            int arc = cursor[from[i]]++;
+            targets[arc] = to[i];
+            weights[arc] = weight[i];
+        }
+        return new CsrGraph(offsets, targets, weights);
+    }
+
+    /**
+     * Random connected sparse topology: a ring for connectivity plus random chords,
+     * about {@code averageDegree} links per router, weights in [1, maxWeight].
+     */
+    public static CsrGraph randomSparse(int vertexCount, int averageDegree, int maxWeight, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        int links = Math.max(vertexCount, vertexCount * averageDegree / 2);
+        int[] from = new int[2 * links];
+        int[] to = new int[2 * links];
+        int[] weight = new int[2 * links];
+        int arcs = 0;
+        for (int i = 0; i < links; i++) {
+            int u = i < vertexCount ? i : rng.nextInt(vertexCount);
+            int v = i < vertexCount ? (i + 1) % vertexCount : rng.nextInt(vertexCount);
+            if (u == v) continue;
+            int w = 1 + rng.nextInt(maxWeight);
+            from[arcs] = u; to[arcs] = v; weight[arcs++] = w;
+            from[arcs] = v; to[arcs] = u; weight[arcs++] = w;
+        }
+        return fromArcs(vertexCount, from, to, weight, arcs);
+    }
+
+    /** rows x cols mesh with unit weights, the classic topology with many equal-cost paths. */
+    public static CsrGraph grid(int rows, int cols) {
+        int n = rows * cols;
+        int links = rows * (cols - 1) + cols * (rows - 1);
+        int[] from = new int[2 * links];
+        int[] to = new int[2 * links];
+        int[] weight = new int[2 * links];
+        int arcs = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int u = r * cols + c;
+                if (c + 1 < cols) {
+                    from[arcs] = u; to[arcs] = u + 1; weight[arcs++] = 1;
+                    from[arcs] = u + 1; to[arcs] = u; weight[arcs++] = 1;
+                }
+                if (r + 1 < rows) {
+                    from[arcs] = u; to[arcs] = u + cols; weight[arcs++] = 1;
+                    from[arcs] = u + cols; to[arcs] = u; weight[arcs++] = 1;
+                }
+            }
+        }
+        return fromArcs(n, from, to, weight, arcs);
+    }
+
+    /** The graph with every arc turned around, for searches towards a target. */
+    public CsrGraph reversed() {
+        int n = vertexCount();
+        int[] from = new int[arcCount()];
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(from, offsets[u], offsets[u + 1], u);
+        }
+        return fromArcs(n, targets, from, weights, arcCount());
+    }
+
+    /** Adjacency matrix of the same graph; only sensible for small topologies. */
+    public int[][] toMatrix() {
+        int n = vertexCount();
+        int[][] matrix = new int[n][n];
+        for (int u = 0; u < n; u++) {
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = targets[arc];
+                matrix[u][v] = matrix[u][v] == 0 ? weights[arc] : Math.min(matrix[u][v], weights[arc]);
+            }
+        }
+        return matrix;
+    }
+}
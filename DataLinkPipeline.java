@@ -0,0 +1,588 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The lab's link-layer pieces put together as a staged pipeline, one thread per stage and bounded
+ * queues in between:
+ *
+ * <pre>
+ *   ARQ sender -> CRC -> Hamming FEC -> line coding -> noisy channel
+ *     -> line decoding -> FEC correction -> CRC check -> ARQ receiver
+ * </pre>
+ *
+ * The channel flips line symbols at a given rate. The receiver answers every transmission with an
+ * ACK or NAK over a clean feedback queue, in transmission order, and the sender retransmits NAKed
+ * frames up to a retry limit. Goodput on a nominal line rate, retransmission rate and each stage's
+ * CPU time are reported, so the cost of a stronger code can be set against the retransmissions it
+ * saves. NRZ-L (the default) turns each symbol error into one bit error for the FEC stage. Codes
+ * with redundancy of their own (Manchester, AMI, 4B/5B, 8b/10b) reject the frame at the line
+ * decoder instead, so FEC never sees it. Each transmission's symbol errors are drawn from its own
+ * seed, so a run's counts do not depend on how the stage threads happen to interleave.
+ */
+public class DataLinkPipeline {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final int HEADER_BYTES = 4;
+    private static final int CRC_BYTES = 2;
+    private static final int REPEATS = 5;
+    private static final int MIN_WARMUP_ROUNDS = 3;
+    private static final int MAX_WARMUP_ROUNDS = 20;
+    private static final double STEADY_TOLERANCE = 0.05;
+
+    /** Forward error correction applied to the CRC-protected frame, byte by byte. */
+    enum Fec {
+        NONE(8, false),
+        /** The lab's 12-bit code carrying a whole byte: corrects one bit in every 12. */
+        HAMMING_12_8(8, true),
+        /** The same layout shortened to 7 bits per nibble: corrects one bit in every 7. */
+        HAMMING_7_4(4, true);
+
+        final int dataBits;
+        final int codeBits;
+        final int[] encode;
+        final int[] decode;
+
+        Fec(int dataBits, boolean coded) {
+            this.dataBits = dataBits;
+            this.codeBits = coded ? HammingCode.codewordBits(dataBits) : dataBits;
+            this.encode = new int[1 << dataBits];
+            this.decode = new int[1 << codeBits];
+            for (int v = 0; v < encode.length; v++) {
+                encode[v] = coded ? HammingCode.encodeWord(v, dataBits) : v;
+            }
+            for (int w = 0; w < decode.length; w++) {
+                decode[w] = coded ? HammingCode.decodeWord(w, dataBits) : w;
+            }
+        }
+
+        int wordsPerByte() {
+            return 8 / dataBits;
+        }
+
+        int encodedLength(int bytes) {
+            return (bytes * wordsPerByte() * codeBits + 7) / 8;
+        }
+
+        /** Data bits per transmitted bit. */
+        double rate() {
+            return (double) dataBits / codeBits;
+        }
+    }
+
+    record Config(int frames, int payloadBytes, Fec fec, LineCodec.Scheme scheme, double symbolErrorRate,
+                  int window, int queueCapacity, int retryLimit, long seed) {
+
+        static Config of(Fec fec, LineCodec.Scheme scheme, double symbolErrorRate) {
+            return new Config(2_000, 256, fec, scheme, symbolErrorRate, 32, 16, 16, 1);
+        }
+
+        Config withFrames(int frames, int payloadBytes) {
+            return new Config(frames, payloadBytes, fec, scheme, symbolErrorRate, window, queueCapacity, retryLimit, seed);
+        }
+    }
+
+    record StageTime(String stage, long cpuNanos) {
+    }
+
+    record Result(Config config, int delivered, int dropped, long transmissions, long correctedBits,
+                  long lineViolations, long fecFailures, long crcFailures, long undetected, long channelSymbols,
+                  long symbolErrors, long wallNanos, List<StageTime> stages) {
+
+        /**
+         * Payload through the pipeline per second of wall-clock time. This depends on the JIT, the
+         * machine and the other stages' threads, so it is only indicative; compare {@link #nominalGoodputMbps}.
+         */
+        double goodputMbps() {
+            return delivered * (double) config.payloadBytes() * 8e3 / wallNanos;
+        }
+
+        /** Goodput on a line running at {@code megabaud} symbols per microsecond, independent of CPU speed. */
+        double nominalGoodputMbps(double megabaud) {
+            return efficiency() * megabaud;
+        }
+
+        /** Transmissions beyond the first of each frame; undetected-error frames were ACKed, not resent. */
+        double retransmissionRate() {
+            return transmissions == 0 ? 0 : (double) (transmissions - delivered - dropped - undetected) / transmissions;
+        }
+
+        /** Delivered payload bits per line symbol sent: goodput on a link of one symbol per second. */
+        double efficiency() {
+            return channelSymbols == 0 ? 0 : delivered * (double) config.payloadBytes() * 8 / channelSymbols;
+        }
+    }
+
+    /** One transmission of a frame; each stage replaces {@code data} with its output. */
+    private static final class Frame {
+        final int seq;
+        /** 1 for the first transmission, counting up with each retransmission. */
+        final int attempt;
+        byte[] data;
+        int length;
+        boolean corrupt;
+
+        Frame(int seq, int attempt, byte[] data, int length) {
+            this.seq = seq;
+            this.attempt = attempt;
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    private static final Frame END = new Frame(-1, 0, new byte[0], 0);
+
+    @FunctionalInterface
+    private interface FrameStage {
+        void process(Frame frame);
+    }
+
+    private final Config config;
+    private final List<StageTime> stageTimes = Collections.synchronizedList(new ArrayList<>());
+    private final BlockingQueue<Boolean> feedback;
+    private List<Thread> threads = List.of();
+    private volatile RuntimeException failure;
+
+    // Each counter is written by exactly one stage thread and read after all of them are joined.
+    private int delivered;
+    private int dropped;
+    private long transmissions;
+    private long correctedBits;
+    private long lineViolations;
+    private long fecFailures;
+    private long crcFailures;
+    private long undetected;
+    private long channelSymbols;
+    private long symbolErrors;
+
+    private DataLinkPipeline(Config config) {
+        if (config.window() < 1 || config.queueCapacity() < 1 || config.retryLimit() < 1) {
+            throw new IllegalArgumentException("window, queue capacity and retry limit must be positive");
+        }
+        this.config = config;
+        // At most one answer per frame in flight, so the receiver never blocks on feedback.
+        this.feedback = new ArrayBlockingQueue<>(config.window());
+    }
+
+    static Result run(Config config) {
+        return new DataLinkPipeline(config).execute();
+    }
+
+    private Result execute() {
+        List<BlockingQueue<Frame>> queues = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            queues.add(new ArrayBlockingQueue<>(config.queueCapacity()));
+        }
+
+        Fec fec = config.fec();
+        LineCodec.Scheme scheme = config.scheme();
+        threads = List.of(
+                stage("arq-send", () -> sendFrames(queues.get(0))),
+                filter("crc", queues.get(0), queues.get(1), this::appendCrc),
+                filter("fec", queues.get(1), queues.get(2), frame -> applyFec(frame, fec)),
+                filter("line-encode", queues.get(2), queues.get(3), lineEncoder(scheme)),
+                filter("channel", queues.get(3), queues.get(4), channel(config.symbolErrorRate(), config.seed())),
+                filter("line-decode", queues.get(4), queues.get(5), lineDecoder(scheme)),
+                filter("fec-correct", queues.get(5), queues.get(6), frame -> correct(frame, fec)),
+                filter("crc-check", queues.get(6), queues.get(7), this::checkCrc),
+                stage("arq-receive", () -> receiveFrames(queues.get(7))));
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            threads.forEach(Thread::interrupt);
+            throw new IllegalStateException("Interrupted while waiting for the pipeline", e);
+        }
+        long wall = System.nanoTime() - start;
+        if (failure != null) {
+            throw new IllegalStateException("Pipeline stage failed", failure);
+        }
+
+        List<StageTime> stages = new ArrayList<>();
+        for (Thread thread : threads) {
+            for (StageTime time : stageTimes) {
+                if (time.stage().equals(thread.getName())) stages.add(time);
+            }
+        }
+        return new Result(config, delivered, dropped, transmissions, correctedBits, lineViolations, fecFailures,
+                crcFailures, undetected, channelSymbols, symbolErrors, wall, stages);
+    }
+
+    private interface StageBody {
+        void run() throws InterruptedException;
+    }
+
+    /** A thread that runs {@code body} and records its CPU time under {@code name}. */
+    private Thread stage(String name, StageBody body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // The neighbours would block forever on a dead stage, so take the whole pipeline down.
+                failure = e;
+                threads.forEach(Thread::interrupt);
+            } finally {
+                stageTimes.add(new StageTime(name, THREADS.getCurrentThreadCpuTime()));
+            }
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /** Passes every frame from {@code in} to {@code out}, transformed; corrupt frames go through untouched. */
+    private Thread filter(String name, BlockingQueue<Frame> in, BlockingQueue<Frame> out, FrameStage work) {
+        return stage(name, () -> {
+            while (true) {
+                Frame frame = in.take();
+                if (frame != END && !frame.corrupt) {
+                    work.process(frame);
+                }
+                out.put(frame);
+                if (frame == END) return;
+            }
+        });
+    }
+
+    // ---- sender ----
+
+    private void sendFrames(BlockingQueue<Frame> out) throws InterruptedException {
+        int frames = config.frames();
+        int[] attempts = new int[frames];
+        ArrayDeque<Integer> inFlight = new ArrayDeque<>();
+        ArrayDeque<Integer> retransmit = new ArrayDeque<>();
+        int next = 0;
+        int finished = 0;
+
+        while (finished < frames) {
+            boolean canSend = inFlight.size() < config.window() && (!retransmit.isEmpty() || next < frames);
+            Boolean ack = canSend ? feedback.poll() : feedback.take();
+            if (ack != null) {
+                // Answers come back in transmission order, so the oldest frame in flight is the one answered.
+                int seq = inFlight.poll();
+                if (ack) {
+                    finished++;
+                } else if (attempts[seq] < config.retryLimit()) {
+                    retransmit.add(seq);
+                } else {
+                    dropped++;
+                    finished++;
+                }
+                continue;
+            }
+
+            int seq = retransmit.isEmpty() ? next++ : retransmit.poll();
+            attempts[seq]++;
+            transmissions++;
+            inFlight.add(seq);
+            byte[] data = new byte[HEADER_BYTES + config.payloadBytes() + CRC_BYTES];
+            writeHeader(data, seq);
+            fillPayload(data, HEADER_BYTES, config.payloadBytes(), seq, config.seed());
+            out.put(new Frame(seq, attempts[seq], data, HEADER_BYTES + config.payloadBytes()));
+        }
+        out.put(END);
+    }
+
+    private void appendCrc(Frame frame) {
+        int crc = CRC.calculateCRC(frame.data, 0, frame.length);
+        frame.data[frame.length] = (byte) (crc >>> 8);
+        frame.data[frame.length + 1] = (byte) crc;
+        frame.length += CRC_BYTES;
+    }
+
+    private static void applyFec(Frame frame, Fec fec) {
+        if (fec == Fec.NONE) return;
+        byte[] coded = new byte[fec.encodedLength(frame.length)];
+        long bits = 0;
+        int pending = 0;
+        int out = 0;
+        int mask = (1 << fec.dataBits) - 1;
+        for (int i = 0; i < frame.length; i++) {
+            int b = frame.data[i] & 0xFF;
+            for (int shift = 8 - fec.dataBits; shift >= 0; shift -= fec.dataBits) {
+                bits = bits << fec.codeBits | fec.encode[b >>> shift & mask];
+                pending += fec.codeBits;
+                while (pending >= 8) {
+                    pending -= 8;
+                    coded[out++] = (byte) (bits >>> pending);
+                }
+            }
+        }
+        if (pending > 0) {
+            coded[out] = (byte) (bits << (8 - pending));
+        }
+        frame.data = coded;
+        frame.length = coded.length;
+    }
+
+    private static FrameStage lineEncoder(LineCodec.Scheme scheme) {
+        LineCodec codec = new LineCodec(scheme);
+        return frame -> {
+            // Every frame starts from the idle line state, so a damaged frame cannot desynchronise the next.
+            codec.reset();
+            byte[] symbols = new byte[frame.length * scheme.symbolsPerByte()];
+            frame.length = codec.encode(frame.data, 0, frame.length, symbols, 0);
+            frame.data = symbols;
+        };
+    }
+
+    // ---- channel ----
+
+    /**
+     * Independent symbol errors at {@code rate}: a +1/-1 is inverted, a 0 becomes either. The gap to the
+     * next error is drawn geometrically, so clean stretches of the line cost nothing. The errors of a
+     * transmission come from a generator seeded with (seed, seq, attempt), not from one stream shared in
+     * arrival order: whether the sender gets a retransmission or a new frame out first depends on thread
+     * timing, and that must not decide which frame meets which error.
+     */
+    private FrameStage channel(double rate, long seed) {
+        double logClean = Math.log1p(-rate);
+        return frame -> {
+            channelSymbols += frame.length;
+            if (rate <= 0) return;
+            SplittableRandom rng = new SplittableRandom(seed * 0x9E3779B97F4A7C15L
+                    + frame.seq * 0xBF58476D1CE4E5B9L + frame.attempt * 0x94D049BB133111EBL);
+            for (long position = gap(rng, logClean); position < frame.length; position += 1 + gap(rng, logClean)) {
+                int i = (int) position;
+                byte level = frame.data[i];
+                frame.data[i] = level != 0 ? (byte) -level : (byte) (rng.nextBoolean() ? 1 : -1);
+                symbolErrors++;
+            }
+        };
+    }
+
+    private static long gap(SplittableRandom rng, double logClean) {
+        return (long) (Math.log(1 - rng.nextDouble()) / logClean);
+    }
+
+    // ---- receiver ----
+
+    private FrameStage lineDecoder(LineCodec.Scheme scheme) {
+        LineCodec codec = new LineCodec(scheme);
+        return frame -> {
+            codec.reset();
+            byte[] bytes = new byte[frame.length / scheme.symbolsPerByte()];
+            try {
+                frame.length = codec.decode(frame.data, 0, frame.length, bytes, 0);
+                frame.data = bytes;
+            } catch (IllegalArgumentException e) {
+                // A code or disparity violation: the frame is lost before FEC ever sees it.
+                lineViolations++;
+                frame.corrupt = true;
+            }
+        };
+    }
+
+    private void correct(Frame frame, Fec fec) {
+        if (fec == Fec.NONE) return;
+        int dataBytes = frame.length * 8 / (fec.wordsPerByte() * fec.codeBits);
+        byte[] data = new byte[dataBytes];
+        int wordMask = (1 << fec.codeBits) - 1;
+        long bits = 0;
+        int pending = 0;
+        int in = 0;
+        for (int i = 0; i < dataBytes; i++) {
+            int value = 0;
+            for (int w = 0; w < fec.wordsPerByte(); w++) {
+                while (pending < fec.codeBits) {
+                    bits = bits << 8 | (frame.data[in++] & 0xFF);
+                    pending += 8;
+                }
+                pending -= fec.codeBits;
+                int decoded = fec.decode[(int) (bits >>> pending) & wordMask];
+                if (decoded < 0) {
+                    fecFailures++;
+                    frame.corrupt = true;
+                    return;
+                }
+                correctedBits += decoded >>> 8;
+                value = value << fec.dataBits | decoded & 0xFF;
+            }
+            data[i] = (byte) value;
+        }
+        frame.data = data;
+        frame.length = dataBytes;
+    }
+
+    private void checkCrc(Frame frame) {
+        int length = frame.length - CRC_BYTES;
+        if (length < HEADER_BYTES || CRC.calculateCRC(frame.data, 0, length)
+                != ((frame.data[length] & 0xFF) << 8 | frame.data[length + 1] & 0xFF)) {
+            crcFailures++;
+            frame.corrupt = true;
+        } else {
+            frame.length = length;
+        }
+    }
+
+    private void receiveFrames(BlockingQueue<Frame> in) throws InterruptedException {
+        BitSet seen = new BitSet(config.frames());
+        byte[] expected = new byte[config.payloadBytes()];
+        while (true) {
+            Frame frame = in.take();
+            if (frame == END) return;
+            if (frame.corrupt) {
+                feedback.put(false);
+                continue;
+            }
+            // Check what got through against what was sent: a CRC pass over wrong data is an undetected error.
+            int seq = readHeader(frame.data);
+            fillPayload(expected, 0, expected.length, seq, config.seed());
+            boolean intact = seq == frame.seq && frame.length == HEADER_BYTES + expected.length
+                    && Arrays.equals(frame.data, HEADER_BYTES, frame.length, expected, 0, expected.length);
+            if (!intact) {
+                undetected++;
+            } else if (!seen.get(seq)) {
+                seen.set(seq);
+                delivered++;
+            }
+            feedback.put(true);
+        }
+    }
+
+    private static void writeHeader(byte[] data, int seq) {
+        data[0] = (byte) (seq >>> 24);
+        data[1] = (byte) (seq >>> 16);
+        data[2] = (byte) (seq >>> 8);
+        data[3] = (byte) seq;
+    }
+
+    private static int readHeader(byte[] data) {
+        return (data[0] & 0xFF) << 24 | (data[1] & 0xFF) << 16 | (data[2] & 0xFF) << 8 | data[3] & 0xFF;
+    }
+
+    /** Payload of frame {@code seq}, reproducible on the receiving side for verification. */
+    private static void fillPayload(byte[] data, int offset, int length, int seq, long seed) {
+        long x = seed * 0x9E3779B97F4A7C15L + seq * 0xBF58476D1CE4E5B9L + 1;
+        for (int i = 0; i < length; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+            data[offset + i] = (byte) x;
+        }
+    }
+
+    public static void main(String[] args) {
+        LineCodec.Scheme scheme = LineCodec.Scheme.NRZ_L;
+        int frames = 2_000;
+        int payloadBytes = 256;
+        double megabaud = 100;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--scheme" -> scheme = LineCodec.Scheme.valueOf(args[i + 1]);
+                case "--frames" -> frames = Integer.parseInt(args[i + 1]);
+                case "--payload" -> payloadBytes = Integer.parseInt(args[i + 1]);
+                case "--baud" -> megabaud = Double.parseDouble(args[i + 1]) / 1e6;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        double[] errorRates = {0, 1e-5, 1e-4, 1e-3, 3e-3, 1e-2};
+        int warmupRounds = warmUp(scheme, frames, payloadBytes);
+        Map<Fec, List<Result>> results = sweep(scheme, frames, payloadBytes, errorRates);
+
+        System.out.printf("%d frames of %d bytes, %s line coding, window %d, retry limit %d%n%n", frames,
+                payloadBytes, scheme, results.get(Fec.NONE).get(0).config().window(),
+                results.get(Fec.NONE).get(0).config().retryLimit());
+        double baud = megabaud;
+        printTable(String.format("Goodput on a %.0f Mbaud line (Mbit/s of payload)", megabaud), errorRates, results,
+                r -> r.nominalGoodputMbps(baud), "%10.2f");
+        printTable("Retransmitted share of transmissions (%)", errorRates, results,
+                r -> 100 * r.retransmissionRate(), "%10.2f");
+        printTable("Frames dropped after the retry limit", errorRates, results, r -> r.dropped(), "%10.0f");
+        printTable("Undetected errors (CRC passed, data wrong)", errorRates, results, r -> r.undetected(), "%10.0f");
+        printTable(String.format("Pipeline throughput, indicative only (Mbit/s of payload, wall clock, median of %d "
+                + "after %d warm-up rounds)", REPEATS, warmupRounds), errorRates, results, Result::goodputMbps, "%10.1f");
+
+        int column = 3;
+        System.out.printf("Stage CPU time (ms) at symbol error rate %.0e%n", errorRates[column]);
+        System.out.printf("%-14s", "stage");
+        for (Fec fec : Fec.values()) System.out.printf("%14s", fec);
+        System.out.println();
+        List<StageTime> names = results.get(Fec.NONE).get(column).stages();
+        for (int s = 0; s < names.size(); s++) {
+            System.out.printf("%-14s", names.get(s).stage());
+            for (Fec fec : Fec.values()) {
+                System.out.printf("%14.1f", results.get(fec).get(column).stages().get(s).cpuNanos() / 1e6);
+            }
+            System.out.println();
+        }
+        System.out.println();
+        for (Fec fec : Fec.values()) {
+            Result r = results.get(fec).get(column);
+            System.out.printf("%-13s code rate %.3f, %d transmissions, %d bits corrected, %d line violations, "
+                            + "%d FEC failures, %d CRC failures%n", fec, fec.rate(), r.transmissions(),
+                    r.correctedBits(), r.lineViolations(), r.fecFailures(), r.crcFailures());
+        }
+    }
+
+    /**
+     * Runs every FEC at a mid-range error rate until a round's total wall time is within 5% of the
+     * previous one, so the measured runs are not timing the JIT.
+     * Returns the number of rounds it took.
+     */
+    private static int warmUp(LineCodec.Scheme scheme, int frames, int payloadBytes) {
+        long previous = Long.MAX_VALUE;
+        for (int round = 1; round <= MAX_WARMUP_ROUNDS; round++) {
+            long total = 0;
+            for (Fec fec : Fec.values()) {
+                total += run(Config.of(fec, scheme, 1e-3).withFrames(frames, payloadBytes)).wallNanos();
+            }
+            if (round >= MIN_WARMUP_ROUNDS && Math.abs(total - previous) <= STEADY_TOLERANCE * previous) {
+                return round;
+            }
+            previous = total;
+        }
+        return MAX_WARMUP_ROUNDS;
+    }
+
+    /**
+     * {@value #REPEATS} runs of every (FEC, error rate) pair, with the FEC order rotated between runs
+     * so no code is always measured first. Only the wall time differs between the runs of a pair, and
+     * the run with the median wall time stands for it.
+     */
+    private static Map<Fec, List<Result>> sweep(LineCodec.Scheme scheme, int frames, int payloadBytes, double[] errorRates) {
+        Fec[] fecs = Fec.values();
+        Result[][][] runs = new Result[fecs.length][errorRates.length][REPEATS];
+        for (int repeat = 0; repeat < REPEATS; repeat++) {
+            for (int column = 0; column < errorRates.length; column++) {
+                for (int k = 0; k < fecs.length; k++) {
+                    int f = (k + repeat + column) % fecs.length;
+                    runs[f][column][repeat] = run(Config.of(fecs[f], scheme, errorRates[column]).withFrames(frames, payloadBytes));
+                }
+            }
+        }
+        Map<Fec, List<Result>> results = new EnumMap<>(Fec.class);
+        for (int f = 0; f < fecs.length; f++) {
+            List<Result> row = new ArrayList<>();
+            for (Result[] repeats : runs[f]) {
+                Arrays.sort(repeats, Comparator.comparingLong(Result::wallNanos));
+                row.add(repeats[REPEATS / 2]);
+            }
+            results.put(fecs[f], row);
+        }
+        return results;
+    }
+
+    private static void printTable(String title, double[] errorRates, Map<Fec, List<Result>> results,
+                                   ToDoubleFunction<Result> metric, String format) {
+        System.out.println(title);
+        System.out.printf("%-14s", "FEC \\ SER");
+        for (double rate : errorRates) System.out.printf("%10s", rate == 0 ? "0" : String.format("%.0e", rate));
+        System.out.println();
+        for (Map.Entry<Fec, List<Result>> row : results.entrySet()) {
+            System.out.printf("%-14s", row.getKey());
+            for (Result r : row.getValue()) System.out.printf(format, metric.applyAsDouble(r));
+            System.out.println();
+        }
+        System.out.println();
+    }
+}
@@ -1,5 +1,6 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.*;
 
 public class DijkstraOSPF extends JFrame {
@@ -11,6 +12,8 @@ public class DijkstraOSPF extends JFrame {
     private int[][] graph;
     private int[] distances;
     private int nodeCount;
+    private Point[] positions;
+    private TopologyView view;
 
     static class Node implements Comparable<Node> {
         int id;
@@ -31,6 +34,11 @@ public class DijkstraOSPF extends JFrame {
         this.graph = graph;
         this.distances = distances;
         this.nodeCount = graph.length;
+        this.positions = new Point[nodeCount];
+        int radius = Math.min(WIDTH, HEIGHT) / 3;
+        for (int i = 0; i < nodeCount; i++) {
+            positions[i] = getNodePosition(i, nodeCount, WIDTH / 2, HEIGHT / 2, radius);
+        }
 
         setTitle("Network Visualization");
         setSize(WIDTH, HEIGHT);
@@ -38,22 +46,34 @@ public class DijkstraOSPF extends JFrame {
         setLocationRelativeTo(null);
     }
 
+    /** Large-topology mode: a zoomable {@link TopologyView} instead of the fixed circle drawing. */
+    public DijkstraOSPF(CsrGraph graph, float[] x, float[] y, int[] distances) {
+        this.distances = distances;
+        this.nodeCount = graph.vertexCount();
+        this.view = new TopologyView(graph, x, y, distances);
+
+        setTitle("Network Visualization - " + nodeCount + " routers (wheel to zoom, drag to pan, double-click to fit)");
+        setSize(WIDTH, HEIGHT);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setContentPane(view);
+    }
+
     @Override
     public void paint(Graphics g) {
         super.paint(g);
+        if (view != null) {
+            return;
+        }
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        int centerX = WIDTH / 2;
-        int centerY = HEIGHT / 2;
-        int radius = Math.min(WIDTH, HEIGHT) / 3;
-
         // Draw edges
         for (int i = 0; i < nodeCount; i++) {
             for (int j = i + 1; j < nodeCount; j++) {
                 if (graph[i][j] > 0) {
-                    Point p1 = getNodePosition(i, nodeCount, centerX, centerY, radius);
-                    Point p2 = getNodePosition(j, nodeCount, centerX, centerY, radius);
+                    Point p1 = positions[i];
+                    Point p2 = positions[j];
                     g2d.setColor(Color.GRAY);
                     g2d.drawLine(p1.x, p1.y, p2.x, p2.y);
                     // Draw edge weight
@@ -67,7 +87,7 @@ public class DijkstraOSPF extends JFrame {
 
         // Draw nodes
         for (int i = 0; i < nodeCount; i++) {
-            Point p = getNodePosition(i, nodeCount, centerX, centerY, radius);
+            Point p = positions[i];
             g2d.setColor(Color.WHITE);
             g2d.fillOval(p.x - NODE_RADIUS, p.y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);
             g2d.setColor(Color.BLACK);
@@ -84,6 +104,10 @@ public class DijkstraOSPF extends JFrame {
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--large")) {
+            showLarge(args.length > 1 ? Integer.parseInt(args[1]) : 100_000);
+            return;
+        }
         int[][] graph = {
                 {0, 4, 0, 0, 0, 0, 0, 18, 0},
                 {4, 0, 8, 0, 0, 0, 0, 11, 0},
@@ -104,12 +128,63 @@ public class DijkstraOSPF extends JFrame {
             System.out.println("Node " + i + ": " + distances[i]);
         }
 
+        RoutingTable routes = RoutingTable.compute(CsrGraph.fromMatrix(graph));
+        System.out.println("\nRouting table of node " + source + ":");
+        for (int i = 0; i < graph.length; i++) {
+            if (i != source) {
+                System.out.println("Destination " + i + " via " + routes.nextHop(source, i));
+            }
+        }
+
         SwingUtilities.invokeLater(() -> {
             DijkstraOSPF visualization = new DijkstraOSPF(graph, distances);
             visualization.setVisible(true);
         });
     }
 
+    /**
+     * A mesh of about {@code routers} nodes with random link costs, shaded by distance from the
+     * centre. Prints how long the offscreen layer takes to build at a few zoom levels, then opens
+     * the window unless running headless.
+     */
+    private static void showLarge(int routers) {
+        int side = (int) Math.ceil(Math.sqrt(routers));
+        CsrGraph mesh = CsrGraph.grid(side, side);
+        int[] weight = new int[mesh.arcCount()];
+        Random random = new Random(7);
+        for (int u = 0; u < mesh.vertexCount(); u++) {
+            for (int arc = mesh.offsets[u]; arc < mesh.offsets[u + 1]; arc++) {
+                int v = mesh.targets[arc];
+                // Same cost in both directions: derive it from the unordered pair
+                weight[arc] = 1 + (int) (((long) Math.min(u, v) * 31 + Math.max(u, v)) * 2654435761L % 9);
+            }
+        }
+        CsrGraph graph = new CsrGraph(mesh.offsets, mesh.targets, weight);
+        float[] x = new float[graph.vertexCount()];
+        float[] y = new float[graph.vertexCount()];
+        for (int v = 0; v < x.length; v++) {
+            x[v] = v % side + (random.nextFloat() - 0.5f) * 0.3f;
+            y[v] = v / side + (random.nextFloat() - 0.5f) * 0.3f;
+        }
+        int[] distances = dijkstra(graph, (side / 2) * side + side / 2);
+
+        TopologyView view = new TopologyView(graph, x, y, distances);
+        view.setSize(WIDTH, HEIGHT);
+        view.fitToWindow();
+        BufferedImage layer = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int step = 0; step < 4; step++) {
+            view.renderLayer(layer);
+            view.renderLayer(layer);
+            System.out.printf("Zoom x%-5d %,8d routers drawn, layer rebuilt in %.2f ms%n",
+                    1 << (3 * step), view.lastDrawnNodes(), view.lastRenderNanos() / 1e6);
+            view.zoom(8, WIDTH / 2, HEIGHT / 2);
+        }
+
+        if (!GraphicsEnvironment.isHeadless()) {
+            SwingUtilities.invokeLater(() -> new DijkstraOSPF(graph, x, y, distances).setVisible(true));
+        }
+    }
+
     public static int[] dijkstra(int[][] graph, int source) {
         int n = graph.length;
         int[] distances = new int[n];
@@ -141,4 +216,65 @@ public class DijkstraOSPF extends JFrame {
 
         return distances;
     }
+
+    public static int[] dijkstra(CsrAdjacency graph, int source) {
+        int n = graph.vertexCount();
+        int[] distances = new int[n];
+        dijkstra(graph, source, distances, new IndexedDaryHeap(n, 4));
+        return distances;
+    }
+
+    /**
+     * Same result as the matrix version, over a CSR graph (on the heap or a mapped topology file):
+     * O((n + m) log n) time with a decrease-key heap. The caller owns {@code distances} and
+     * {@code heap}, so repeated runs reuse them and nothing is allocated per vertex or per edge.
+     */
+    public static void dijkstra(CsrAdjacency graph, int source, int[] distances, IndexedDaryHeap heap) {
+        Arrays.fill(distances, INF);
+        distances[source] = 0;
+        heap.clear();
+        heap.insertOrDecrease(source, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.pop();
+            int du = distances[u];
+            for (int arc = graph.firstArc(u), end = graph.endArc(u); arc < end; arc++) {
+                int v = graph.target(arc);
+                int newDist = du + graph.weight(arc);
+                if (newDist < distances[v]) {
+                    distances[v] = newDist;
+                    heap.insertOrDecrease(v, newDist);
+                }
+            }
+        }
+    }
+
+    /**
+     * The same search, also recording in {@code firstPort[v]} the source's outgoing port (arc index
+     * within its adjacency) that the shortest path to v leaves through. Kept as its own copy of the
+     * loop so neither this nor the plain search pays for the other's work.
+     */
+    static void dijkstraFirstPorts(CsrAdjacency graph, int source, int[] distances, int[] firstPort,
+                                   IndexedDaryHeap heap) {
+        Arrays.fill(distances, INF);
+        distances[source] = 0;
+        heap.clear();
+        heap.insertOrDecrease(source, 0);
+        int sourceArcs = graph.firstArc(source);
+
+        while (!heap.isEmpty()) {
+            int u = heap.pop();
+            int du = distances[u];
+            int port = firstPort[u];
+            for (int arc = graph.firstArc(u), end = graph.endArc(u); arc < end; arc++) {
+                int v = graph.target(arc);
+                int newDist = du + graph.weight(arc);
+                if (newDist < distances[v]) {
+                    distances[v] = newDist;
+                    firstPort[v] = u == source ? arc - sourceArcs : port;
+                    heap.insertOrDecrease(v, newDist);
+                }
+            }
+        }
+    }
 }
\ No newline at end of file
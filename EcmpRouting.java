@@ -0,0 +1,274 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Equal-cost multipath view of one router's shortest paths. Unlike
+ * {@link DijkstraOSPF#dijkstra}, ties are kept: every node gets the list of all arcs that end a
+ * shortest path to it, so the whole shortest-path DAG is there for enumerating paths. Each
+ * destination also gets a bitset of the source's outgoing ports that start some shortest path to
+ * it, and a count of those paths. Flows are spread over the ports by hashing their 5-tuple, so
+ * packets of one flow stay on one path.
+ */
+public class EcmpRouting {
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int NONE = -1;
+
+    private final CsrGraph graph;
+    private final int source;
+    private final int words;
+    private final int[] distances;
+    private final long[] portMasks;
+    private final long[] pathCounts;
+    /** Equal-cost predecessors as linked lists of arcs: the first in predecessorHead, the rest via nextPredecessor. */
+    private final int[] predecessorHead;
+    private final int[] nextPredecessor;
+    private final int[] arcSource;
+
+    private EcmpRouting(CsrGraph graph, int source) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.source = source;
+        this.words = Math.max(1, (graph.degree(source) + 63) >>> 6);
+        this.distances = new int[n];
+        this.portMasks = new long[n * words];
+        this.pathCounts = new long[n];
+        this.predecessorHead = new int[n];
+        this.nextPredecessor = new int[graph.arcCount()];
+        this.arcSource = new int[graph.arcCount()];
+    }
+
+    public static EcmpRouting compute(CsrGraph graph, int source) {
+        EcmpRouting routing = new EcmpRouting(graph, source);
+        routing.run(new IndexedDaryHeap(graph.vertexCount(), 4));
+        return routing;
+    }
+
+    /**
+     * Dijkstra that merges equal-cost arrivals. With positive weights every predecessor of u on a
+     * shortest path is settled before u, so u's list, mask and count are final when u is popped.
+     * Each arc is relaxed once, so it joins at most one predecessor list and no list needs more room
+     * than the arc arrays give it; a shorter arrival just drops the list it replaces.
+     */
+    private void run(IndexedDaryHeap heap) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+
+        Arrays.fill(distances, INF);
+        Arrays.fill(predecessorHead, NONE);
+        distances[source] = 0;
+        pathCounts[source] = 1;
+        heap.clear();
+        heap.insertOrDecrease(source, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.pop();
+            int du = distances[u];
+            for (int arc = offsets[u], end = offsets[u + 1]; arc < end; arc++) {
+                int v = targets[arc];
+                int newDist = du + weights[arc];
+                if (newDist < distances[v]) {
+                    distances[v] = newDist;
+                    pathCounts[v] = 0;
+                    predecessorHead[v] = NONE;
+                    Arrays.fill(portMasks, v * words, (v + 1) * words, 0L);
+                    heap.insertOrDecrease(v, newDist);
+                } else if (newDist != distances[v]) {
+                    continue;
+                }
+                arcSource[arc] = u;
+                nextPredecessor[arc] = predecessorHead[v];
+                predecessorHead[v] = arc;
+                long paths = pathCounts[v] + pathCounts[u];
+                pathCounts[v] = paths < 0 ? Long.MAX_VALUE : paths;
+                if (u == source) {
+                    int port = arc - offsets[source];
+                    portMasks[v * words + (port >>> 6)] |= 1L << port;
+                } else {
+                    for (int w = 0; w < words; w++) {
+                        portMasks[v * words + w] |= portMasks[u * words + w];
+                    }
+                }
+            }
+        }
+    }
+
+    public int distance(int destination) {
+        return distances[destination];
+    }
+
+    /** Number of distinct shortest paths to {@code destination}, saturating at Long.MAX_VALUE. */
+    public long pathCount(int destination) {
+        return pathCounts[destination];
+    }
+
+    /** Arcs that end a shortest path to {@code node}, i.e. its incoming arcs in the shortest-path DAG. */
+    public int[] predecessorArcs(int node) {
+        int count = 0;
+        for (int arc = predecessorHead[node]; arc != NONE; arc = nextPredecessor[arc]) {
+            count++;
+        }
+        int[] arcs = new int[count];
+        for (int arc = predecessorHead[node], i = 0; arc != NONE; arc = nextPredecessor[arc]) {
+            arcs[i++] = arc;
+        }
+        return arcs;
+    }
+
+    /** The router at the near end of {@code arc}, for arcs returned by {@link #predecessorArcs}. */
+    public int arcSource(int arc) {
+        return arcSource[arc];
+    }
+
+    /**
+     * Up to {@code limit} shortest paths to {@code destination}, each as its nodes from the source,
+     * found by walking the predecessor lists backwards. Empty if the destination is unreachable.
+     */
+    public List<int[]> shortestPaths(int destination, int limit) {
+        List<int[]> paths = new ArrayList<>();
+        if (distances[destination] == INF || limit <= 0) {
+            return paths;
+        }
+        // Depth-first from the destination; pending[d] is the next predecessor arc to try at depth d.
+        int[] nodes = new int[16];
+        int[] pending = new int[16];
+        nodes[0] = destination;
+        pending[0] = predecessorHead[destination];
+        int depth = 0;
+        while (depth >= 0 && paths.size() < limit) {
+            int node = nodes[depth];
+            if (node == source) {
+                int[] path = new int[depth + 1];
+                for (int i = 0; i <= depth; i++) {
+                    path[i] = nodes[depth - i];
+                }
+                paths.add(path);
+                depth--;
+                continue;
+            }
+            int arc = pending[depth];
+            if (arc == NONE) {
+                depth--;
+                continue;
+            }
+            pending[depth] = nextPredecessor[arc];
+            if (++depth == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * depth);
+                pending = Arrays.copyOf(pending, 2 * depth);
+            }
+            nodes[depth] = arcSource[arc];
+            pending[depth] = predecessorHead[arcSource[arc]];
+        }
+        return paths;
+    }
+
+    /** Number of outgoing ports that start a shortest path to {@code destination}. */
+    public int nextHopCount(int destination) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(portMasks[destination * words + w]);
+        }
+        return count;
+    }
+
+    /**
+     * Port for a flow: the hash picks one of the equal-cost ports uniformly with {@link #pick}.
+     * Returns -1 for unreachable destinations.
+     */
+    public int selectPort(int destination, long flowHash) {
+        int count = nextHopCount(destination);
+        if (count == 0) {
+            return -1;
+        }
+        int rank = pick(flowHash, count);
+        for (int w = 0; w < words; w++) {
+            long mask = portMasks[destination * words + w];
+            int bits = Long.bitCount(mask);
+            if (rank < bits) {
+                for (int i = 0; i < rank; i++) {
+                    mask &= mask - 1;
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(mask);
+            }
+            rank -= bits;
+        }
+        throw new IllegalStateException("Port mask changed during selection");
+    }
+
+    /**
+     * Maps a flow hash onto [0, count) uniformly, with a multiply-shift reduction on its high bits
+     * instead of a modulo.
+     */
+    static int pick(long flowHash, int count) {
+        return (int) (((flowHash >>> 32) * count) >>> 32);
+    }
+
+    public int selectNextHop(int destination, long flowHash) {
+        int port = selectPort(destination, flowHash);
+        return port < 0 ? -1 : graph.targets[graph.offsets[source] + port];
+    }
+
+    /** 64-bit hash of a flow's 5-tuple (murmur3 finalizer over the packed fields). */
+    public static long flowHash(int sourceAddress, int destinationAddress, int sourcePort, int destinationPort, int protocol) {
+        long h = ((long) sourceAddress << 32) ^ (destinationAddress & 0xFFFFFFFFL);
+        h ^= ((long) sourcePort << 48) ^ ((long) (destinationPort & 0xFFFF) << 16) ^ protocol;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public static void main(String[] args) {
+        int side = 300;
+        CsrGraph grid = CsrGraph.grid(side, side);
+        int source = (side / 2) * side + side / 2;
+
+        for (int i = 0; i < 3; i++) {
+            compute(grid, source);
+        }
+        long start = System.nanoTime();
+        int runs = 10;
+        EcmpRouting routing = null;
+        for (int i = 0; i < runs; i++) {
+            routing = compute(grid, source);
+        }
+        double spfMs = (System.nanoTime() - start) / 1e6 / runs;
+
+        int corner = 0;
+        System.out.printf("%dx%d grid, source %d: ECMP SPF %.2f ms%n", side, side, source, spfMs);
+        int near = source - 3 * side - 4;
+        for (int destination : new int[]{corner, near}) {
+            System.out.printf("Destination %d: distance %d, %d equal-cost next hops, %d shortest paths%s%n",
+                    destination, routing.distance(destination), routing.nextHopCount(destination),
+                    routing.pathCount(destination), routing.pathCount(destination) == Long.MAX_VALUE ? " (saturated)" : "");
+        }
+        List<int[]> paths = routing.shortestPaths(near, 1_000);
+        if (paths.size() != routing.pathCount(near)) {
+            throw new IllegalStateException("Enumerated " + paths.size() + " paths, counted " + routing.pathCount(near));
+        }
+        System.out.printf("Destination %d: %d predecessors, first of its enumerated paths %s%n", near,
+                routing.predecessorArcs(near).length, Arrays.toString(paths.get(0)));
+
+        SplittableRandom rng = new SplittableRandom(9);
+        int flows = 20_000_000;
+        int[] destinations = new int[1 << 16];
+        for (int i = 0; i < destinations.length; i++) {
+            destinations[i] = rng.nextInt(grid.vertexCount());
+        }
+        long[] perPort = new long[grid.degree(source)];
+        start = System.nanoTime();
+        for (int i = 0; i < flows; i++) {
+            int destination = destinations[i & (destinations.length - 1)];
+            long hash = flowHash(0x0A000001 + i, 0x0A100000 + destination, 1024 + (i & 0x7FFF), 443, 6);
+            int port = routing.selectPort(destination, hash);
+            if (port >= 0) perPort[port]++;
+        }
+        double selectNs = (System.nanoTime() - start) / (double) flows;
+        System.out.printf("Selection: %.1f ns per flow (%.1f M flows/s)%n", selectNs, 1e3 / selectNs);
+        System.out.println("Flows per outgoing port: " + Arrays.toString(perPort));
+    }
+}
@@ -69,18 +69,83 @@ public class HammingCode {
     }
 
     private static int detectAndCorrectError(int[] data) {
+        int errorBit = syndrome(data);
+
+        if (errorBit > 0) {
+            data[errorBit - 1] ^= 1;
+        }
+
+        return errorBit;
+    }
+
+    private static int syndrome(int[] data) {
         int c1 = data[0] ^ data[2] ^ data[4] ^ data[6] ^ data[8] ^ data[10];
         int c2 = data[1] ^ data[2] ^ data[5] ^ data[6] ^ data[9] ^ data[10];
         int c3 = data[3] ^ data[4] ^ data[5] ^ data[6] ^ data[11];
         int c4 = data[7] ^ data[8] ^ data[9] ^ data[10] ^ data[11];
 
-        int errorBit = c1 + (c2 << 1) + (c3 << 2) + (c4 << 3);
+        return c1 + (c2 << 1) + (c3 << 2) + (c4 << 3);
+    }
 
+    /** Positions used by a code carrying {@code dataBits} (1-8): 7 for four data bits, 12 for eight. */
+    static int codewordBits(int dataBits) {
+        if (dataBits < 1 || dataBits > 8) {
+            throw new IllegalArgumentException("dataBits must be 1-8: " + dataBits);
+        }
+        int n = dataBits;
+        while (n - (32 - Integer.numberOfLeadingZeros(n)) < dataBits) {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Codeword for the low {@code dataBits} of {@code value}, laid out as in the lab program (data MSB
+     * first into positions 3, 5, 6, 7, 9...). Bit i of the result is position i + 1.
+     */
+    static int encodeWord(int value, int dataBits) {
+        int n = codewordBits(dataBits);
+        int[] data = new int[12];
+        int j = dataBits - 1;
+        for (int i = 0; i < n; i++) {
+            if (i != 0 && i != 1 && i != 3 && i != 7) {
+                data[i] = value >> j-- & 1;
+            }
+        }
+        encodeHamming(data);
+
+        int word = 0;
+        for (int i = 0; i < n; i++) {
+            word |= data[i] << i;
+        }
+        return word;
+    }
+
+    /**
+     * Data bits of a received word after single-error correction, with bit 8 set if a bit was flipped
+     * back, or -1 if the syndrome points past the end of the word (more than one error).
+     */
+    static int decodeWord(int word, int dataBits) {
+        int n = codewordBits(dataBits);
+        int[] data = new int[12];
+        for (int i = 0; i < n; i++) {
+            data[i] = word >> i & 1;
+        }
+        int errorBit = syndrome(data);
+        if (errorBit > n) {
+            return -1;
+        }
         if (errorBit > 0) {
             data[errorBit - 1] ^= 1;
         }
 
-        return errorBit;
+        int value = 0;
+        for (int i = 0; i < n; i++) {
+            if (i != 0 && i != 1 && i != 3 && i != 7) {
+                value = value << 1 | data[i];
+            }
+        }
+        return errorBit > 0 ? value | 0x100 : value;
     }
 
     private static void displayErrorInfo(int detectedErrorPosition, int actualErrorPosition, int[] data) {
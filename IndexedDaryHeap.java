@@ -0,0 +1,116 @@
+import java.util.Arrays;
+
+/**
+ * Min-heap of vertex ids keyed by int distance, with arity {@code d} and a position
+ * index so a vertex already in the heap can have its key decreased in place.
+ * All storage is allocated up front; push/pop/decrease-key allocate nothing.
+ */
+public class IndexedDaryHeap {
+    private static final int ABSENT = -1;
+
+    private final int arity;
+    private final int[] heap;
+    private final int[] position;
+    private final int[] key;
+    private int size;
+
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.key = new int[capacity];
+        Arrays.fill(position, ABSENT);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int vertex) {
+        return position[vertex] != ABSENT;
+    }
+
+    public int keyOf(int vertex) {
+        return key[vertex];
+    }
+
+    /** Inserts {@code vertex}, or lowers its key if it is already queued with a larger one. */
+    public void insertOrDecrease(int vertex, int newKey) {
+        int i = position[vertex];
+        if (i == ABSENT) {
+            i = size++;
+        } else if (newKey >= key[vertex]) {
+            return;
+        }
+        key[vertex] = newKey;
+        siftUp(vertex, i);
+    }
+
+    public int peekKey() {
+        return key[heap[0]];
+    }
+
+    public int pop() {
+        int top = heap[0];
+        position[top] = ABSENT;
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(last, 0);
+        }
+        return top;
+    }
+
+    /** Empties the heap in O(size), so a reused heap costs nothing for untouched vertices. */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int vertex, int i) {
+        int k = key[vertex];
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            int p = heap[parent];
+            if (key[p] <= k) break;
+            heap[i] = p;
+            position[p] = i;
+            i = parent;
+        }
+        heap[i] = vertex;
+        position[vertex] = i;
+    }
+
+    private void siftDown(int vertex, int i) {
+        int k = key[vertex];
+        while (true) {
+            int first = i * arity + 1;
+            if (first >= size) break;
+            int last = Math.min(first + arity, size);
+            int best = first;
+            int bestKey = key[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                int ck = key[heap[c]];
+                if (ck < bestKey) {
+                    best = c;
+                    bestKey = ck;
+                }
+            }
+            if (bestKey >= k) break;
+            int child = heap[best];
+            heap[i] = child;
+            position[child] = i;
+            i = best;
+        }
+        heap[i] = vertex;
+        position[vertex] = i;
+    }
+}
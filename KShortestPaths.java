@@ -0,0 +1,254 @@
+import java.util.*;
+
+/**
+ * Yen's k shortest loopless paths between two routers, for traffic engineering beyond
+ * what equal-cost multipath offers. One reverse Dijkstra from the target per query gives exact
+ * distances-to-go; removing nodes and arcs only lengthens paths, so they stay a consistent
+ * A* heuristic for every spur search, which then heads almost straight for the target.
+ * Removed nodes and arcs and tentative distances are tracked with generation stamps so a
+ * search never has to clear per-vertex arrays.
+ */
+public class KShortestPaths {
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int NONE = -1;
+
+    static final class Path implements Comparable<Path> {
+        final int[] nodes;
+        final int[] arcs;
+        final long cost;
+
+        Path(int[] nodes, int[] arcs, long cost) {
+            this.nodes = nodes;
+            this.arcs = arcs;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Path other) {
+            int byCost = Long.compare(cost, other.cost);
+            return byCost != 0 ? byCost : Integer.compare(nodes.length, other.nodes.length);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Path p && Arrays.equals(arcs, p.arcs);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(arcs);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(nodes) + " cost " + cost;
+        }
+    }
+
+    private final CsrGraph graph;
+    private final CsrGraph reverse;
+    private final int[] toTarget;
+    private final int[] distances;
+    private final int[] distanceStamp;
+    private final int[] parentArc;
+    private final int[] arcSource;
+    private final int[] removedNodeStamp;
+    private final int[] removedArcStamp;
+    private final IndexedDaryHeap heap;
+    private int stamp;
+    private long settledNodes;
+
+    public KShortestPaths(CsrGraph graph) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.reverse = graph.reversed();
+        this.toTarget = new int[n];
+        this.distances = new int[n];
+        this.distanceStamp = new int[n];
+        this.parentArc = new int[n];
+        this.removedNodeStamp = new int[n];
+        this.removedArcStamp = new int[graph.arcCount()];
+        this.arcSource = new int[graph.arcCount()];
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.offsets[u]; arc < graph.offsets[u + 1]; arc++) {
+                arcSource[arc] = u;
+            }
+        }
+        this.heap = new IndexedDaryHeap(n, 4);
+    }
+
+    /** Up to {@code k} loopless paths from {@code source} to {@code target}, cheapest first. */
+    public List<Path> find(int source, int target, int k) {
+        List<Path> accepted = new ArrayList<>();
+        PriorityQueue<Path> candidates = new PriorityQueue<>();
+        Set<Path> seen = new HashSet<>();
+
+        DijkstraOSPF.dijkstra(reverse, target, toTarget, heap);
+        nextStamp();
+        Path first = search(source, target, new int[0], new int[0], 0);
+        if (first == null) {
+            return accepted;
+        }
+        accepted.add(first);
+        seen.add(first);
+
+        while (accepted.size() < k) {
+            Path previous = accepted.get(accepted.size() - 1);
+            long rootCost = 0;
+            for (int i = 0; i < previous.nodes.length - 1; i++) {
+                int spur = previous.nodes[i];
+                nextStamp();
+                // Arcs leaving the spur node along any accepted path that shares this root are removed
+                for (Path p : accepted) {
+                    if (p.nodes.length > i + 1 && sharesRoot(p, previous, i)) {
+                        removedArcStamp[p.arcs[i]] = stamp;
+                    }
+                }
+                // Root nodes other than the spur are removed so the result stays loopless
+                for (int j = 0; j < i; j++) {
+                    removedNodeStamp[previous.nodes[j]] = stamp;
+                }
+                Path candidate = search(spur, target, previous.nodes, previous.arcs, i);
+                if (candidate != null) {
+                    Path total = new Path(candidate.nodes, candidate.arcs, candidate.cost + rootCost);
+                    if (seen.add(total)) {
+                        candidates.add(total);
+                    }
+                }
+                rootCost += graph.weights[previous.arcs[i]];
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            accepted.add(candidates.poll());
+        }
+        return accepted;
+    }
+
+    /** Nodes visited by spur searches since construction; a measure of the work done. */
+    public long settledNodes() {
+        return settledNodes;
+    }
+
+    private static boolean sharesRoot(Path p, Path q, int length) {
+        for (int j = 0; j < length; j++) {
+            if (p.arcs[j] != q.arcs[j]) return false;
+        }
+        return p.nodes[length] == q.nodes[length];
+    }
+
+    private void nextStamp() {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(distanceStamp, 0);
+            Arrays.fill(removedNodeStamp, 0);
+            Arrays.fill(removedArcStamp, 0);
+            stamp = 1;
+        }
+    }
+
+    private int distance(int v) {
+        return distanceStamp[v] == stamp ? distances[v] : INF;
+    }
+
+    /**
+     * A* from {@code spur} to {@code target} avoiding removed nodes and arcs, stopping when
+     * the target is settled. The result is prefixed with the first {@code rootLength} hops of the
+     * root path; its cost covers only the spur part.
+     */
+    private Path search(int spur, int target, int[] rootNodes, int[] rootArcs, int rootLength) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+
+        heap.clear();
+        if (toTarget[spur] == INF) {
+            return null;
+        }
+        distances[spur] = 0;
+        distanceStamp[spur] = stamp;
+        parentArc[spur] = NONE;
+        heap.insertOrDecrease(spur, toTarget[spur]);
+        boolean found = false;
+        while (!heap.isEmpty()) {
+            int u = heap.pop();
+            settledNodes++;
+            if (u == target) {
+                found = true;
+                break;
+            }
+            int du = distances[u];
+            for (int arc = offsets[u], end = offsets[u + 1]; arc < end; arc++) {
+                int v = targets[arc];
+                if (removedArcStamp[arc] == stamp || removedNodeStamp[v] == stamp || toTarget[v] == INF) continue;
+                int newDist = du + weights[arc];
+                if (newDist < distance(v)) {
+                    distances[v] = newDist;
+                    distanceStamp[v] = stamp;
+                    parentArc[v] = arc;
+                    heap.insertOrDecrease(v, newDist + toTarget[v]);
+                }
+            }
+        }
+        if (!found) {
+            return null;
+        }
+
+        int hops = 0;
+        for (int v = target; v != spur; v = arcSource[parentArc[v]]) {
+            hops++;
+        }
+        int[] nodes = new int[rootLength + hops + 1];
+        int[] arcs = new int[rootLength + hops];
+        System.arraycopy(rootNodes, 0, nodes, 0, rootLength);
+        System.arraycopy(rootArcs, 0, arcs, 0, rootLength);
+        int i = rootLength + hops;
+        for (int v = target; v != spur; v = arcSource[parentArc[v]]) {
+            nodes[i] = v;
+            arcs[--i] = parentArc[v];
+        }
+        nodes[rootLength] = spur;
+        return new Path(nodes, arcs, distances[target]);
+    }
+
+    /** Per-flow choice among {@code pathCount} paths, so one flow keeps its path and flows spread evenly. */
+    public static int select(int pathCount, long flowHash) {
+        return EcmpRouting.pick(flowHash, pathCount);
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int k = 8;
+        CsrGraph graph = CsrGraph.randomSparse(n, 4, 100, 21);
+        KShortestPaths yen = new KShortestPaths(graph);
+        SplittableRandom rng = new SplittableRandom(4);
+
+        List<Path> example = yen.find(0, n / 2, k);
+        System.out.println(k + " shortest paths 0 -> " + n / 2 + ":");
+        for (Path p : example) {
+            System.out.println("  cost " + p.cost + ", " + (p.nodes.length - 1) + " hops");
+        }
+        int[] expected = DijkstraOSPF.dijkstra(graph, 0);
+        if (example.get(0).cost != expected[n / 2]) {
+            throw new IllegalStateException("First Yen path is not a shortest path");
+        }
+
+        int queries = 50;
+        long settledBefore = yen.settledNodes();
+        long start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            yen.find(rng.nextInt(n), rng.nextInt(n), k);
+        }
+        double msPerQuery = (System.nanoTime() - start) / 1e6 / queries;
+        System.out.printf("%,d routers: %.2f ms per %d-shortest-paths query, %,d spur-search nodes settled per query%n",
+                n, msPerQuery, k, (yen.settledNodes() - settledBefore) / queries);
+
+        int flows = 10_000_000;
+        long[] perPath = new long[example.size()];
+        start = System.nanoTime();
+        for (int i = 0; i < flows; i++) {
+            perPath[select(example.size(), EcmpRouting.flowHash(0x0A000001 + i, 0x0A100000, 1024 + (i & 0x7FFF), 80, 6))]++;
+        }
+        double selectNs = (System.nanoTime() - start) / (double) flows;
+        System.out.printf("Path selection: %.1f ns per flow, flows per path %s%n", selectNs, Arrays.toString(perPath));
+    }
+}
@@ -0,0 +1,561 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Bulk line coding of byte data to and from symbol streams, one signed level (-1, 0, +1) per
+ * signalling element. Level conventions match {@link LineEncoding}'s waveforms. Encoding is a
+ * lookup of a whole byte's symbols in a per-state table; decoding walks the symbols with the
+ * scheme's inverse rule, and for the block codes an inverse table that also rejects code and
+ * disparity violations. Line state (NRZI level, AMI polarity, running disparity...) lives in the
+ * codec, so a stream can be processed in chunks; nothing is allocated per call.
+ */
+public class LineCodec {
+    public enum Scheme {
+        /** Polar NRZ-L: 1 is +1, 0 is -1. */
+        NRZ_L(8, 1),
+        /** NRZ inverted: a 1 toggles the level, starting from +1. */
+        NRZ_I(8, 2),
+        /** Bipolar AMI: 0 is 0, successive 1s alternate +1 / -1; the first mark is +1. */
+        AMI(8, 2),
+        /** IEEE 802.3 Manchester: 0 is (+1, -1), 1 is (-1, +1). */
+        MANCHESTER(16, 1),
+        /** Mid-bit transition always; a 1 also transitions at the start of the bit, as in LineEncoding. */
+        DIFFERENTIAL_MANCHESTER(16, 2),
+        /** Three levels cycled 0, +1, 0, -1, advancing on each 1. */
+        MLT_3(8, 4),
+        /** FDDI / 100BASE-FX: each nibble as a 5-bit code group, sent NRZI. */
+        FOUR_B_FIVE_B(10, 2),
+        /** IBM 8b/10b with running disparity, sent NRZ (1 is +1). */
+        EIGHT_B_TEN_B(10, 2);
+
+        final int symbolsPerByte;
+        final int states;
+
+        Scheme(int symbolsPerByte, int states) {
+            this.symbolsPerByte = symbolsPerByte;
+            this.states = states;
+        }
+
+        public int symbolsPerByte() {
+            return symbolsPerByte;
+        }
+    }
+
+    private static final int[] FOUR_B_FIVE_B = {
+            0b11110, 0b01001, 0b10100, 0b10101, 0b01010, 0b01011, 0b01110, 0b01111,
+            0b10010, 0b10011, 0b10110, 0b10111, 0b11010, 0b11011, 0b11100, 0b11101};
+
+    /** 5b/6b codes for RD-, first transmitted bit (a) as the most significant. */
+    private static final int[] FIVE_B_SIX_B = {
+            0b100111, 0b011101, 0b101101, 0b110001, 0b110101, 0b101001, 0b011001, 0b111000,
+            0b111001, 0b100101, 0b010101, 0b110100, 0b001101, 0b101100, 0b011100, 0b010111,
+            0b011011, 0b100011, 0b010011, 0b110010, 0b001011, 0b101010, 0b011010, 0b111010,
+            0b110011, 0b100110, 0b010110, 0b110110, 0b001110, 0b101110, 0b011110, 0b101011};
+
+    /** 3b/4b codes for RD-; index 8 is the alternate A7 used to avoid runs of five. */
+    private static final int[] THREE_B_FOUR_B = {
+            0b1011, 0b1001, 0b0101, 0b1100, 0b1101, 0b1010, 0b0110, 0b1110, 0b0111};
+
+    private static final int CHUNK_BYTES = 4096;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long PAIR_LOW_BITS = 0x0001000100010001L;
+    private static final Tables[] TABLES = new Tables[Scheme.values().length];
+
+    /** Encoded symbols and successor state for every (state, byte), plus the inverse for block codes. */
+    private static final class Tables {
+        final byte[] symbols;
+        final long[] packed;
+        final byte[] nextState;
+        final short[] decode;
+
+        Tables(byte[] symbols, long[] packed, byte[] nextState, short[] decode) {
+            this.symbols = symbols;
+            this.packed = packed;
+            this.nextState = nextState;
+            this.decode = decode;
+        }
+    }
+
+    static {
+        for (Scheme scheme : Scheme.values()) {
+            TABLES[scheme.ordinal()] = buildTables(scheme);
+        }
+    }
+
+    private final Scheme scheme;
+    private final Tables tables;
+    private final byte[] staging;
+    private final byte[] scratch;
+    private int encodeState;
+    private int decodeState;
+    private int decodePrevious;
+
+    public LineCodec(Scheme scheme) {
+        this.scheme = scheme;
+        this.tables = TABLES[scheme.ordinal()];
+        this.staging = new byte[CHUNK_BYTES];
+        this.scratch = new byte[CHUNK_BYTES * scheme.symbolsPerByte];
+        reset();
+    }
+
+    public Scheme scheme() {
+        return scheme;
+    }
+
+    /** Back to the initial line state for both directions. */
+    public void reset() {
+        encodeState = 0;
+        decodeState = 0;
+        decodePrevious = initialLevel(scheme);
+    }
+
+    /** Level assumed on the line before the first symbol, for schemes decoded by comparison. */
+    private static int initialLevel(Scheme scheme) {
+        return switch (scheme) {
+            case NRZ_I, FOUR_B_FIVE_B -> 1;
+            case DIFFERENTIAL_MANCHESTER -> -1;
+            default -> 0;
+        };
+    }
+
+    private static Tables buildTables(Scheme scheme) {
+        int spb = scheme.symbolsPerByte;
+        byte[] symbols = new byte[scheme.states * 256 * spb];
+        byte[] nextState = new byte[scheme.states * 256];
+        for (int state = 0; state < scheme.states; state++) {
+            for (int b = 0; b < 256; b++) {
+                int row = state * 256 + b;
+                nextState[row] = (byte) encodeByteSlowly(scheme, state, b, symbols, row * spb);
+            }
+        }
+        short[] decode = null;
+        if (scheme == Scheme.FOUR_B_FIVE_B) {
+            decode = new short[32];
+            Arrays.fill(decode, (short) -1);
+            for (int nibble = 0; nibble < 16; nibble++) {
+                decode[FOUR_B_FIVE_B[nibble]] = (short) nibble;
+            }
+        } else if (scheme == Scheme.EIGHT_B_TEN_B) {
+            // Per running disparity: code group -> data byte | next disparity << 8, or -1
+            decode = new short[2 * 1024];
+            Arrays.fill(decode, (short) -1);
+            for (int rd = 0; rd < 2; rd++) {
+                for (int b = 0; b < 256; b++) {
+                    int row = rd * 256 + b;
+                    int code = 0;
+                    for (int i = 0; i < 10; i++) {
+                        code = code << 1 | (symbols[row * 10 + i] > 0 ? 1 : 0);
+                    }
+                    decode[rd * 1024 + code] = (short) (b | nextState[row] << 8);
+                }
+            }
+        }
+        // Each row again as little-endian words, zero-padded, for word-sized stores
+        int words = (spb + 7) >>> 3;
+        int rows = scheme.states * 256;
+        long[] packed = new long[rows * words];
+        byte[] padded = new byte[8 * words];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(symbols, row * spb, padded, 0, spb);
+            for (int w = 0; w < words; w++) {
+                packed[row * words + w] = (long) LONGS.get(padded, 8 * w);
+            }
+        }
+        return new Tables(symbols, packed, nextState, decode);
+    }
+
+    /** Reference encoder, one bit at a time; only used to fill the tables. Returns the next state. */
+    private static int encodeByteSlowly(Scheme scheme, int state, int b, byte[] out, int at) {
+        switch (scheme) {
+            case EIGHT_B_TEN_B -> {
+                int rd = state;
+                int x = b & 0x1F;
+                int y = b >>> 5;
+                int six = FIVE_B_SIX_B[x];
+                if (rd == 1 && (Integer.bitCount(six) != 3 || x == 7)) six ^= 0x3F;
+                if (Integer.bitCount(six) != 3) rd ^= 1;
+                boolean alternate = y == 7 && (rd == 0 ? x == 17 || x == 18 || x == 20 : x == 11 || x == 13 || x == 14);
+                int four = THREE_B_FOUR_B[alternate ? 8 : y];
+                if (rd == 1 && (Integer.bitCount(four) != 2 || y == 3)) four ^= 0xF;
+                if (Integer.bitCount(four) != 2) rd ^= 1;
+                int code = six << 4 | four;
+                for (int i = 0; i < 10; i++) {
+                    out[at + i] = (byte) (((code >>> (9 - i)) & 1) == 1 ? 1 : -1);
+                }
+                return rd;
+            }
+            case FOUR_B_FIVE_B -> {
+                int code = FOUR_B_FIVE_B[b >>> 4] << 5 | FOUR_B_FIVE_B[b & 0xF];
+                int level = state == 0 ? 1 : -1;
+                for (int i = 0; i < 10; i++) {
+                    if (((code >>> (9 - i)) & 1) == 1) level = -level;
+                    out[at + i] = (byte) level;
+                }
+                return level == 1 ? 0 : 1;
+            }
+            default -> {
+                for (int i = 0; i < 8; i++) {
+                    int bit = (b >>> (7 - i)) & 1;
+                    switch (scheme) {
+                        case NRZ_L -> out[at + i] = (byte) (bit == 1 ? 1 : -1);
+                        case NRZ_I -> {
+                            if (bit == 1) state ^= 1;
+                            out[at + i] = (byte) (state == 0 ? 1 : -1);
+                        }
+                        case AMI -> {
+                            if (bit == 1) {
+                                out[at + i] = (byte) (state == 0 ? 1 : -1);
+                                state ^= 1;
+                            }
+                        }
+                        case MANCHESTER -> {
+                            out[at + 2 * i] = (byte) (bit == 0 ? 1 : -1);
+                            out[at + 2 * i + 1] = (byte) (bit == 0 ? -1 : 1);
+                        }
+                        case DIFFERENTIAL_MANCHESTER -> {
+                            if (bit == 0) state ^= 1;
+                            out[at + 2 * i] = (byte) (state == 0 ? 1 : -1);
+                            out[at + 2 * i + 1] = (byte) (state == 0 ? -1 : 1);
+                        }
+                        case MLT_3 -> {
+                            if (bit == 1) state = (state + 1) & 3;
+                            out[at + i] = (byte) (state == 1 ? 1 : state == 3 ? -1 : 0);
+                        }
+                        default -> throw new IllegalStateException(scheme.name());
+                    }
+                }
+                return state;
+            }
+        }
+    }
+
+    /** Encodes {@code length} bytes; returns the number of symbols written ({@code length * symbolsPerByte}). */
+    public int encode(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) {
+        int spb = scheme.symbolsPerByte;
+        int words = (spb + 7) >>> 3;
+        long[] packed = tables.packed;
+        byte[] nextState = tables.nextState;
+        int state = encodeState;
+        int end = dstOffset + length * spb;
+        int i = 0;
+        int out = dstOffset;
+        // Whole 8-byte words per byte; a 10-symbol row spills into the next row's slot, which
+        // is rewritten next, so the last rows (whose spill would leave the range) are copied exactly
+        for (; i < length && out + 8 * words <= end; i++, out += spb) {
+            int row = state << 8 | (src[srcOffset + i] & 0xFF);
+            LONGS.set(dst, out, packed[row * words]);
+            if (words == 2) {
+                LONGS.set(dst, out + 8, packed[row * words + 1]);
+            }
+            state = nextState[row];
+        }
+        for (; i < length; i++, out += spb) {
+            int row = state << 8 | (src[srcOffset + i] & 0xFF);
+            System.arraycopy(tables.symbols, row * spb, dst, out, spb);
+            state = nextState[row];
+        }
+        encodeState = state;
+        return length * spb;
+    }
+
+    /**
+     * Decodes {@code count} symbols, which must be a whole number of bytes; returns the number of
+     * bytes written. Throws IllegalArgumentException on a code violation.
+     * <p>
+     * Eight symbols are read as one little-endian long and turned into a flag per symbol with
+     * a few word operations; a multiply then gathers the flags into a byte, first symbol in the
+     * most significant bit.
+     */
+    public int decode(byte[] src, int srcOffset, int count, byte[] dst, int dstOffset) {
+        int spb = scheme.symbolsPerByte;
+        if (count % spb != 0) {
+            throw new IllegalArgumentException(count + " symbols is not a whole number of " + spb + "-symbol bytes");
+        }
+        int bytes = count / spb;
+        // One tight loop per scheme, so each compiles without the others' branches
+        switch (scheme) {
+            case NRZ_L -> decodeNrzL(src, srcOffset, bytes, dst, dstOffset);
+            case NRZ_I, MLT_3 -> decodeTransitions(src, srcOffset, bytes, dst, dstOffset);
+            case AMI -> decodeAmi(src, srcOffset, bytes, dst, dstOffset);
+            case MANCHESTER -> decodeManchester(src, srcOffset, bytes, dst, dstOffset);
+            case DIFFERENTIAL_MANCHESTER -> decodeDifferentialManchester(src, srcOffset, bytes, dst, dstOffset);
+            case FOUR_B_FIVE_B -> decodeFourBFiveB(src, srcOffset, bytes, dst, dstOffset);
+            case EIGHT_B_TEN_B -> decodeEightBTenB(src, srcOffset, bytes, dst, dstOffset);
+        }
+        return bytes;
+    }
+
+    private static void decodeNrzL(byte[] src, int in, int bytes, byte[] dst, int out) {
+        for (int i = 0; i < bytes; i++, in += 8) {
+            dst[out + i] = (byte) gather8((~(long) LONGS.get(src, in) >>> 7) & LOW_BITS);
+        }
+    }
+
+    /** NRZI and MLT-3: a 1 is any change of level. */
+    private void decodeTransitions(byte[] src, int in, int bytes, byte[] dst, int out) {
+        long previous = decodePrevious & 0xFF;
+        for (int i = 0; i < bytes; i++, in += 8) {
+            long l = (long) LONGS.get(src, in);
+            dst[out + i] = (byte) gather8(nonZero(l ^ (l << 8 | previous)));
+            previous = l >>> 56;
+        }
+        decodePrevious = (byte) previous;
+    }
+
+    /**
+     * A 1 is any mark. The symbols are then checked against what the encoder would have sent
+     * from the same polarity, which catches bipolar violations with one compare per byte.
+     */
+    private void decodeAmi(byte[] src, int in, int bytes, byte[] dst, int out) {
+        long[] packed = tables.packed;
+        byte[] nextState = tables.nextState;
+        int state = decodeState;
+        for (int i = 0; i < bytes; i++, in += 8) {
+            long l = (long) LONGS.get(src, in);
+            int value = gather8(l & LOW_BITS);
+            int row = state << 8 | value;
+            if (packed[row] != l) throw violation(in, "bipolar violation");
+            state = nextState[row];
+            dst[out + i] = (byte) value;
+        }
+        decodeState = state;
+    }
+
+    private static void decodeManchester(byte[] src, int in, int bytes, byte[] dst, int out) {
+        for (int i = 0; i < bytes; i++, in += 16) {
+            long first = manchesterWord(src, in);
+            long second = manchesterWord(src, in + 8);
+            dst[out + i] = (byte) (gather4((first >>> 7) & PAIR_LOW_BITS) << 4 | gather4((second >>> 7) & PAIR_LOW_BITS));
+        }
+    }
+
+    /** A 1 is a change of level between the previous bit's second half and this bit's first half. */
+    private void decodeDifferentialManchester(byte[] src, int in, int bytes, byte[] dst, int out) {
+        long previous = decodePrevious & 0xFF;
+        for (int i = 0; i < bytes; i++, in += 16) {
+            long first = manchesterWord(src, in);
+            long second = manchesterWord(src, in + 8);
+            int high = gather4(((first ^ (first << 8 | previous)) >>> 7) & PAIR_LOW_BITS);
+            int low = gather4(((second ^ (second << 8 | first >>> 56)) >>> 7) & PAIR_LOW_BITS);
+            dst[out + i] = (byte) (high << 4 | low);
+            previous = second >>> 56;
+        }
+        decodePrevious = (byte) previous;
+    }
+
+    private void decodeFourBFiveB(byte[] src, int in, int bytes, byte[] dst, int out) {
+        short[] decode = tables.decode;
+        long previous = decodePrevious & 0xFF;
+        for (int i = 0; i < bytes; i++, in += 10) {
+            long l = (long) LONGS.get(src, in);
+            int ninth = src[in + 8] & 0xFF;
+            int tenth = src[in + 9] & 0xFF;
+            int code = gather8(nonZero(l ^ (l << 8 | previous))) << 2
+                    | (ninth != l >>> 56 ? 2 : 0) | (tenth != ninth ? 1 : 0);
+            previous = tenth;
+            int high = decode[code >>> 5];
+            int low = decode[code & 0x1F];
+            if ((high | low) < 0) throw violation(in, "invalid 5-bit code group");
+            dst[out + i] = (byte) (high << 4 | low);
+        }
+        decodePrevious = (byte) previous;
+    }
+
+    private void decodeEightBTenB(byte[] src, int in, int bytes, byte[] dst, int out) {
+        short[] decode = tables.decode;
+        int state = decodeState;
+        for (int i = 0; i < bytes; i++, in += 10) {
+            int code = gather8((~(long) LONGS.get(src, in) >>> 7) & LOW_BITS) << 2
+                    | (src[in + 8] > 0 ? 2 : 0) | (src[in + 9] > 0 ? 1 : 0);
+            int entry = decode[state << 10 | code];
+            if (entry < 0) throw violation(in, "invalid code group or disparity error");
+            dst[out + i] = (byte) entry;
+            state = entry >>> 8;
+        }
+        decodeState = state;
+    }
+
+    /** Bit 0 of each byte of {@code flags} (symbol k in byte k) to bit 7 - k of the result. */
+    private static int gather8(long flags) {
+        return (int) ((flags * 0x8040201008040201L) >>> 56);
+    }
+
+    /** Bit 0 of each 16-bit lane (symbol pair k) to bit 3 - k of the result. */
+    private static int gather4(long flags) {
+        return (int) ((flags * 0x0008000400020001L) >>> 48) & 0xF;
+    }
+
+    /** Bit 0 of byte k set iff byte k of {@code x} is nonzero. */
+    private static long nonZero(long x) {
+        long high = ((x & 0x7F7F7F7F7F7F7F7FL) + 0x7F7F7F7F7F7F7F7FL) | x;
+        return (high >>> 7) & LOW_BITS;
+    }
+
+    /** Four Manchester symbol pairs; each must be (+1, -1) or (-1, +1). */
+    private static long manchesterWord(byte[] src, int in) {
+        long l = (long) LONGS.get(src, in);
+        long first = l & 0x00FF00FF00FF00FFL;
+        long second = (l >>> 8) & 0x00FF00FF00FF00FFL;
+        if (((first + second) & 0x00FF00FF00FF00FFL) != 0 || (first & PAIR_LOW_BITS) != PAIR_LOW_BITS) {
+            throw violation(in, "no mid-bit transition");
+        }
+        return l;
+    }
+
+    private static IllegalArgumentException violation(int symbol, String what) {
+        return new IllegalArgumentException("Code violation at symbol " + symbol + ": " + what);
+    }
+
+    /**
+     * Encodes as many whole bytes from {@code src} as fit in {@code dst}, advancing both
+     * positions. Heap buffers are processed in place, direct ones through a fixed scratch array.
+     */
+    public void encode(ByteBuffer src, ByteBuffer dst) {
+        int spb = scheme.symbolsPerByte;
+        int bytes = Math.min(src.remaining(), dst.remaining() / spb);
+        if (src.hasArray() && dst.hasArray()) {
+            encode(src.array(), src.arrayOffset() + src.position(), bytes,
+                    dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.position() + bytes);
+            dst.position(dst.position() + bytes * spb);
+            return;
+        }
+        while (bytes > 0) {
+            int n = Math.min(bytes, staging.length);
+            src.get(staging, 0, n);
+            dst.put(scratch, 0, encode(staging, 0, n, scratch, 0));
+            bytes -= n;
+        }
+    }
+
+    /** Decodes as many whole bytes of symbols from {@code src} as fit in {@code dst}, advancing both positions. */
+    public void decode(ByteBuffer src, ByteBuffer dst) {
+        int spb = scheme.symbolsPerByte;
+        int bytes = Math.min(src.remaining() / spb, dst.remaining());
+        if (src.hasArray() && dst.hasArray()) {
+            decode(src.array(), src.arrayOffset() + src.position(), bytes * spb,
+                    dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.position() + bytes * spb);
+            dst.position(dst.position() + bytes);
+            return;
+        }
+        while (bytes > 0) {
+            int n = Math.min(bytes, staging.length);
+            src.get(scratch, 0, n * spb);
+            dst.put(staging, 0, decode(scratch, 0, n * spb, staging, 0));
+            bytes -= n;
+        }
+    }
+
+    /** Mean level and the largest excursion of the running digital sum over a symbol stream. */
+    private static double[] dcBalance(byte[] symbols, int count) {
+        long sum = 0;
+        long worst = 0;
+        for (int i = 0; i < count; i++) {
+            sum += symbols[i];
+            worst = Math.max(worst, Math.abs(sum));
+        }
+        return new double[]{(double) sum / count, worst};
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4 << 20;
+        byte[] data = new byte[size];
+        new Random(11).nextBytes(data);
+        byte[] symbols = new byte[size * 16];
+        byte[] decoded = new byte[size];
+
+        // The level schemes must reproduce LineEncoding's waveforms exactly
+        int[] bits = LineEncoding.bitsOf(Arrays.copyOf(data, 64));
+        LineEncoding.Signal[] reference = {LineEncoding.polarNRZ(bits), LineEncoding.nrzInverted(bits),
+                LineEncoding.bipolarEncoding(bits), LineEncoding.manchesterEncoding(bits),
+                LineEncoding.differentialManchesterEncoding(bits)};
+        Scheme[] matching = {Scheme.NRZ_L, Scheme.NRZ_I, Scheme.AMI, Scheme.MANCHESTER, Scheme.DIFFERENTIAL_MANCHESTER};
+        for (int s = 0; s < matching.length; s++) {
+            int count = new LineCodec(matching[s]).encode(data, 0, 64, symbols, 0);
+            int step = 2 * bits.length / count;
+            for (int i = 0; i < count; i++) {
+                if (symbols[i] != reference[s].level(i * step)) {
+                    throw new IllegalStateException(matching[s] + " differs from LineEncoding at symbol " + i);
+                }
+            }
+        }
+
+        System.out.printf("%,d byte payload%n", size);
+        System.out.printf("%-24s %7s %12s %12s %10s %9s %12s%n",
+                "Scheme", "sym/B", "encode MB/s", "decode MB/s", "mean", "max|RDS|", "worst |RDS|");
+        byte[][] patterns = {new byte[4096], new byte[4096], new byte[4096]};
+        Arrays.fill(patterns[1], (byte) 0xFF);
+        Arrays.fill(patterns[2], (byte) 0x55);
+        for (Scheme scheme : Scheme.values()) {
+            LineCodec encoder = new LineCodec(scheme);
+            LineCodec decoder = new LineCodec(scheme);
+            int count = 0;
+            double encodeMBs = 0;
+            double decodeMBs = 0;
+            for (int round = 0; round < 5; round++) {
+                encoder.reset();
+                decoder.reset();
+                long start = System.nanoTime();
+                count = encoder.encode(data, 0, size, symbols, 0);
+                encodeMBs = Math.max(encodeMBs, size / 1e6 / ((System.nanoTime() - start) / 1e9));
+                start = System.nanoTime();
+                decoder.decode(symbols, 0, count, decoded, 0);
+                decodeMBs = Math.max(decodeMBs, size / 1e6 / ((System.nanoTime() - start) / 1e9));
+                if (!Arrays.equals(data, decoded)) {
+                    throw new IllegalStateException(scheme + " round trip failed");
+                }
+            }
+            double[] balance = dcBalance(symbols, count);
+
+            // Streaming in odd-sized chunks through direct buffers must give the same symbols
+            LineCodec chunked = new LineCodec(scheme);
+            ByteBuffer in = ByteBuffer.allocateDirect(1 << 16);
+            ByteBuffer out = ByteBuffer.allocateDirect((1 << 16) * scheme.symbolsPerByte);
+            in.put(data, 0, 1 << 16).flip();
+            while (in.hasRemaining()) {
+                ByteBuffer slice = in.slice().limit(Math.min(in.remaining(), 777));
+                chunked.encode(slice, out);
+                in.position(in.position() + slice.position());
+            }
+            out.flip();
+            for (int i = 0; i < out.limit(); i++) {
+                if (out.get(i) != symbols[i]) {
+                    throw new IllegalStateException(scheme + " chunked encoding differs at symbol " + i);
+                }
+            }
+            ByteBuffer back = ByteBuffer.allocateDirect(1 << 16);
+            chunked.decode(out, back);
+            for (int i = 0; i < back.limit(); i++) {
+                if (back.get(i) != data[i]) {
+                    throw new IllegalStateException(scheme + " chunked decoding differs at byte " + i);
+                }
+            }
+
+            double worst = 0;
+            for (byte[] pattern : patterns) {
+                LineCodec codec = new LineCodec(scheme);
+                int n = codec.encode(pattern, 0, pattern.length, symbols, 0);
+                worst = Math.max(worst, dcBalance(symbols, n)[1]);
+            }
+            System.out.printf("%-24s %7d %12.0f %12.0f %+10.4f %9.0f %12.0f%n", scheme, scheme.symbolsPerByte,
+                    encodeMBs, decodeMBs, balance[0], balance[1], worst);
+        }
+
+        // A flipped symbol must be caught by the schemes that can detect it
+        LineCodec codec = new LineCodec(Scheme.EIGHT_B_TEN_B);
+        int count = codec.encode(data, 0, 1024, symbols, 0);
+        symbols[count / 2] = (byte) -symbols[count / 2];
+        try {
+            new LineCodec(Scheme.EIGHT_B_TEN_B).decode(symbols, 0, count, decoded, 0);
+            System.out.println("8b/10b: single symbol error went undetected");
+        } catch (IllegalArgumentException e) {
+            System.out.println("8b/10b: " + e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,15 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.Line2D;
-import java.util.Arrays;
+import java.awt.geom.Path2D;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
 
 public class LineEncoding extends JFrame {
     private int[] bits;
-    private double[] signal;
+    private Signal signal;
     private String title;
 
     // gui config
@@ -17,8 +21,132 @@ public class LineEncoding extends JFrame {
     private static final Color SIGNAL_COLOR = new Color(0, 120, 200);
     private static final Color GRID_COLOR = new Color(200, 200, 200);
     private static final Color TEXT_COLOR = new Color(60, 60, 60);
+    private static final FontRenderContext FONT_CONTEXT = new FontRenderContext(null, true, true);
 
-    public LineEncoding(int[] bits, double[] signal, String title) {
+    /**
+     * A line-coded waveform stored as one signed level per half bit period, 2 bytes per bit
+     * instead of {@value #SAMPLES_PER_BIT} doubles. Samples are generated on demand through
+     * {@link #samples()}, and {@link #runs()} walks the constant-level stretches, which is all a
+     * renderer needs.
+     */
+    static final class Signal {
+        static final int SAMPLES_PER_BIT = 100;
+        private static final int SAMPLES_PER_HALF_BIT = SAMPLES_PER_BIT / 2;
+
+        private final byte[] halfBits;
+
+        Signal(byte[] halfBits) {
+            if ((halfBits.length & 1) != 0) {
+                throw new IllegalArgumentException("A signal needs two half-bit levels per bit: " + halfBits.length);
+            }
+            this.halfBits = halfBits;
+        }
+
+        int bitCount() {
+            return halfBits.length / 2;
+        }
+
+        int halfBitCount() {
+            return halfBits.length;
+        }
+
+        /** Level (-1, 0 or 1) during the given half bit period. */
+        int level(int halfBit) {
+            return halfBits[halfBit];
+        }
+
+        long sampleCount() {
+            return (long) halfBits.length * SAMPLES_PER_HALF_BIT;
+        }
+
+        double sample(long index) {
+            return halfBits[(int) (index / SAMPLES_PER_HALF_BIT)];
+        }
+
+        /** Samples from {@code from} (inclusive) to {@code to} (exclusive), produced as they are read. */
+        PrimitiveIterator.OfDouble samples(long from, long to) {
+            if (from < 0 || to > sampleCount() || from > to) {
+                throw new IndexOutOfBoundsException("Samples [" + from + ", " + to + ") of " + sampleCount());
+            }
+            return new PrimitiveIterator.OfDouble() {
+                private long next = from;
+                private int halfBit = (int) (from / SAMPLES_PER_HALF_BIT);
+                private int left = SAMPLES_PER_HALF_BIT - (int) (from % SAMPLES_PER_HALF_BIT);
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public double nextDouble() {
+                    if (next >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    next++;
+                    double level = halfBits[halfBit];
+                    if (--left == 0) {
+                        halfBit++;
+                        left = SAMPLES_PER_HALF_BIT;
+                    }
+                    return level;
+                }
+            };
+        }
+
+        PrimitiveIterator.OfDouble samples() {
+            return samples(0, sampleCount());
+        }
+
+        Runs runs() {
+            return runs(0, halfBits.length);
+        }
+
+        /** Runs clipped to half bits [from, to), for drawing or exporting one window of a long signal. */
+        Runs runs(int from, int to) {
+            return new Runs(halfBits, from, to);
+        }
+    }
+
+    /** Cursor over maximal constant-level runs; allocation-free, positions are in half bits. */
+    static final class Runs {
+        private final byte[] halfBits;
+        private final int limit;
+        private int start;
+        private int end;
+
+        private Runs(byte[] halfBits, int from, int to) {
+            this.halfBits = halfBits;
+            this.limit = to;
+            this.end = from;
+        }
+
+        boolean next() {
+            if (end >= limit) {
+                return false;
+            }
+            start = end;
+            byte level = halfBits[start];
+            do {
+                end++;
+            } while (end < limit && halfBits[end] == level);
+            return true;
+        }
+
+        int start() {
+            return start;
+        }
+
+        int end() {
+            return end;
+        }
+
+        int level() {
+            return halfBits[start];
+        }
+    }
+
+    public LineEncoding(int[] bits, Signal signal, String title) {
         this.bits = bits;
         this.signal = signal;
         this.title = title;
@@ -34,119 +162,231 @@ public class LineEncoding extends JFrame {
         super.paint(g);
         Graphics2D g2 = (Graphics2D) g;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        drawChart(new GraphicsSurface(g2), WIDTH, HEIGHT, signal, bits, 0, bits.length, title);
+    }
+
+    /** Drawing primitives the chart needs, so the same layout can go to a window, an image or SVG. */
+    interface Surface {
+        void fillRect(Color color, int x, int y, int width, int height);
+
+        void line(Color color, float strokeWidth, double x1, double y1, double x2, double y2);
+
+        /** Connected line through {@code count} (x, y) pairs of {@code points}. */
+        void polyline(Color color, float strokeWidth, double[] points, int count);
+
+        /** Text with its baseline starting at (x, y); vertical text reads bottom to top. */
+        void text(Color color, Font font, String text, double x, double y, boolean vertical);
+    }
 
-        g2.setColor(BACKGROUND_COLOR);
-        g2.fillRect(0, 0, WIDTH, HEIGHT);
+    static final class GraphicsSurface implements Surface {
+        private final Graphics2D g2;
 
-        g2.setColor(GRID_COLOR);
-        for (int i = 0; i <= bits.length; i++) {
-            int x = PADDING + i * (WIDTH - 2 * PADDING) / bits.length;
-            g2.drawLine(x, PADDING, x, HEIGHT - PADDING);
+        GraphicsSurface(Graphics2D g2) {
+            this.g2 = g2;
         }
-        for (int i = -1; i <= 1; i++) {
-            int y = HEIGHT / 2 + i * (HEIGHT - 2 * PADDING) / 4;
-            g2.drawLine(PADDING, y, WIDTH - PADDING, y);
-        }
-
-        g2.setColor(AXIS_COLOR);
-        g2.setStroke(new BasicStroke(2));
-        g2.drawLine(PADDING, HEIGHT - PADDING, WIDTH - PADDING, HEIGHT - PADDING); // x-axis
-        g2.drawLine(PADDING, PADDING, PADDING, HEIGHT - PADDING); // y-axis
-
-        g2.setColor(SIGNAL_COLOR);
-        g2.setStroke(new BasicStroke(2));
-        double xScale = (double) (WIDTH - 2 * PADDING) / signal.length;
-        double yScale = (double) (HEIGHT - 2 * PADDING) / 2;
-        for (int i = 1; i < signal.length; i++) {
-            double x1 = PADDING + (i - 1) * xScale;
-            double y1 = HEIGHT / 2 - signal[i - 1] * yScale;
-            double x2 = PADDING + i * xScale;
-            double y2 = HEIGHT / 2 - signal[i] * yScale;
+
+        @Override
+        public void fillRect(Color color, int x, int y, int width, int height) {
+            g2.setColor(color);
+            g2.fillRect(x, y, width, height);
+        }
+
+        @Override
+        public void line(Color color, float strokeWidth, double x1, double y1, double x2, double y2) {
+            g2.setColor(color);
+            g2.setStroke(new BasicStroke(strokeWidth));
             g2.draw(new Line2D.Double(x1, y1, x2, y2));
         }
 
-        g2.setColor(TEXT_COLOR);
-        g2.setFont(new Font("Arial", Font.BOLD, 14));
-        for (int i = 0; i < bits.length; i++) {
-            int x = PADDING + (i + 1) * (WIDTH - 2 * PADDING) / bits.length;
-            g2.drawString(Integer.toString(bits[i]), x - 5, HEIGHT - PADDING / 2);
-            g2.drawString(Integer.toString(i + 1), x - 5, HEIGHT - PADDING / 4);
+        @Override
+        public void polyline(Color color, float strokeWidth, double[] points, int count) {
+            Path2D.Double path = new Path2D.Double();
+            path.moveTo(points[0], points[1]);
+            for (int i = 1; i < count; i++) {
+                path.lineTo(points[2 * i], points[2 * i + 1]);
+            }
+            g2.setColor(color);
+            g2.setStroke(new BasicStroke(strokeWidth));
+            g2.draw(path);
+        }
+
+        @Override
+        public void text(Color color, Font font, String text, double x, double y, boolean vertical) {
+            g2.setColor(color);
+            g2.setFont(font);
+            if (vertical) {
+                g2.rotate(-Math.PI / 2);
+                g2.drawString(text, (float) -y, (float) x);
+                g2.rotate(Math.PI / 2);
+            } else {
+                g2.drawString(text, (float) x, (float) y);
+            }
         }
+    }
 
-        g2.setFont(new Font("Arial", Font.PLAIN, 12));
-        g2.drawString("0", PADDING - 20, HEIGHT / 2 + 5);
-        g2.drawString("1", PADDING - 20, PADDING + 5);
-        g2.drawString("-1", PADDING - 25, HEIGHT - PADDING + 5);
+    static int textWidth(Font font, String text) {
+        return (int) Math.ceil(font.getStringBounds(text, FONT_CONTEXT).getWidth());
+    }
 
-        g2.setFont(new Font("Arial", Font.BOLD, 16));
-        g2.drawString("Time", WIDTH / 2, HEIGHT - PADDING / 4);
-        g2.rotate(-Math.PI / 2);
-        g2.drawString("Amplitude", -HEIGHT / 2, PADDING / 2);
-        g2.rotate(Math.PI / 2);
+    /**
+     * The chart for bits [firstBit, firstBit + bitCount) of the signal in a width x height box.
+     * Bit values and numbers are labelled only while there is room for them.
+     */
+    static void drawChart(Surface surface, int width, int height, Signal signal, int[] bits,
+                          int firstBit, int bitCount, String title) {
+        surface.fillRect(BACKGROUND_COLOR, 0, 0, width, height);
 
-        g2.setFont(new Font("Arial", Font.BOLD, 20));
-        g2.drawString(title, WIDTH / 2 - g2.getFontMetrics().stringWidth(title) / 2, 30);
+        double bitWidth = (double) (width - 2 * PADDING) / bitCount;
+        int gridStep = Math.max(1, (int) Math.ceil(4 / bitWidth));
+        for (int i = 0; i <= bitCount; i += gridStep) {
+            double x = PADDING + i * bitWidth;
+            surface.line(GRID_COLOR, 1, x, PADDING, x, height - PADDING);
+        }
+        for (int i = -1; i <= 1; i++) {
+            int y = height / 2 + i * (height - 2 * PADDING) / 4;
+            surface.line(GRID_COLOR, 1, PADDING, y, width - PADDING, y);
+        }
+
+        surface.line(AXIS_COLOR, 2, PADDING, height - PADDING, width - PADDING, height - PADDING); // x-axis
+        surface.line(AXIS_COLOR, 2, PADDING, PADDING, PADDING, height - PADDING); // y-axis
+
+        double xScale = bitWidth / 2;
+        double yScale = (double) (height - 2 * PADDING) / 2;
+        int fromHalfBit = 2 * firstBit;
+        double[] points = new double[8 * bitCount + 4];
+        int count = 0;
+        Runs runs = signal.runs(fromHalfBit, 2 * (firstBit + bitCount));
+        while (runs.next()) {
+            double y = height / 2 - runs.level() * yScale;
+            points[2 * count] = PADDING + (runs.start() - fromHalfBit) * xScale;
+            points[2 * count++ + 1] = y;
+            points[2 * count] = PADDING + (runs.end() - fromHalfBit) * xScale;
+            points[2 * count++ + 1] = y;
+        }
+        surface.polyline(SIGNAL_COLOR, 2, points, count);
+
+        if (bitWidth >= 40) {
+            Font labels = new Font("Arial", Font.BOLD, 14);
+            for (int i = 0; i < bitCount; i++) {
+                int x = (int) (PADDING + (i + 1) * bitWidth);
+                surface.text(TEXT_COLOR, labels, Integer.toString(bits[firstBit + i]), x - 5, height - PADDING / 2, false);
+                surface.text(TEXT_COLOR, labels, Integer.toString(firstBit + i + 1), x - 5, height - PADDING / 4, false);
+            }
+        }
+
+        Font scale = new Font("Arial", Font.PLAIN, 12);
+        surface.text(TEXT_COLOR, scale, "0", PADDING - 20, height / 2 + 5, false);
+        surface.text(TEXT_COLOR, scale, "1", PADDING - 20, PADDING + 5, false);
+        surface.text(TEXT_COLOR, scale, "-1", PADDING - 25, height - PADDING + 5, false);
+
+        Font axes = new Font("Arial", Font.BOLD, 16);
+        surface.text(TEXT_COLOR, axes, "Time", width / 2, height - PADDING / 4, false);
+        surface.text(TEXT_COLOR, axes, "Amplitude", PADDING / 2, height / 2, true);
+
+        Font heading = new Font("Arial", Font.BOLD, 20);
+        surface.text(TEXT_COLOR, heading, title, width / 2 - textWidth(heading, title) / 2, 30, false);
     }
 
-    private static double[] unipolarNRZ(int[] bits) {
-        double[] signal = new double[bits.length * 100];
+    static Signal unipolarNRZ(int[] bits) {
+        byte[] levels = new byte[2 * bits.length];
         for (int i = 0; i < bits.length; i++) {
-            Arrays.fill(signal, i * 100, (i + 1) * 100, bits[i] == 1 ? 1 : 0);
+            levels[2 * i] = levels[2 * i + 1] = (byte) (bits[i] == 1 ? 1 : 0);
         }
-        return signal;
+        return new Signal(levels);
     }
 
-    private static double[] polarNRZ(int[] bits) {
-        double[] signal = new double[bits.length * 100];
+    static Signal polarNRZ(int[] bits) {
+        byte[] levels = new byte[2 * bits.length];
         for (int i = 0; i < bits.length; i++) {
-            Arrays.fill(signal, i * 100, (i + 1) * 100, bits[i] == 1 ? 1 : -1);
+            levels[2 * i] = levels[2 * i + 1] = (byte) (bits[i] == 1 ? 1 : -1);
         }
-        return signal;
+        return new Signal(levels);
     }
 
-    private static double[] nrzInverted(int[] bits) {
-        double[] signal = new double[bits.length * 100];
+    static Signal nrzInverted(int[] bits) {
+        byte[] levels = new byte[2 * bits.length];
         int currentLevel = 1;
         for (int i = 0; i < bits.length; i++) {
             if (bits[i] == 1) currentLevel = -currentLevel;
-            Arrays.fill(signal, i * 100, (i + 1) * 100, currentLevel);
+            levels[2 * i] = levels[2 * i + 1] = (byte) currentLevel;
         }
-        return signal;
+        return new Signal(levels);
     }
 
-    private static double[] bipolarEncoding(int[] bits) {
-        double[] signal = new double[bits.length * 100];
+    static Signal bipolarEncoding(int[] bits) {
+        byte[] levels = new byte[2 * bits.length];
         int lastOne = 1;
         for (int i = 0; i < bits.length; i++) {
             if (bits[i] == 1) {
-                Arrays.fill(signal, i * 100, (i + 1) * 100, lastOne);
+                levels[2 * i] = levels[2 * i + 1] = (byte) lastOne;
                 lastOne = -lastOne;
             }
         }
-        return signal;
+        return new Signal(levels);
     }
 
-    private static double[] manchesterEncoding(int[] bits) {
-        double[] signal = new double[bits.length * 100];
+    static Signal manchesterEncoding(int[] bits) {
+        byte[] levels = new byte[2 * bits.length];
         for (int i = 0; i < bits.length; i++) {
-            Arrays.fill(signal, i * 100, i * 100 + 50, bits[i] == 0 ? 1 : -1);
-            Arrays.fill(signal, i * 100 + 50, (i + 1) * 100, bits[i] == 0 ? -1 : 1);
+            levels[2 * i] = (byte) (bits[i] == 0 ? 1 : -1);
+            levels[2 * i + 1] = (byte) (bits[i] == 0 ? -1 : 1);
         }
-        return signal;
+        return new Signal(levels);
     }
 
-    private static double[] differentialManchesterEncoding(int[] bits) {
-        double[] signal = new double[bits.length * 100];
+    static Signal differentialManchesterEncoding(int[] bits) {
+        byte[] levels = new byte[2 * bits.length];
         boolean lastBitOne = true;
         for (int i = 0; i < bits.length; i++) {
             if (bits[i] == 0) lastBitOne = !lastBitOne;
-            Arrays.fill(signal, i * 100, i * 100 + 50, lastBitOne ? 1 : -1);
-            Arrays.fill(signal, i * 100 + 50, (i + 1) * 100, lastBitOne ? -1 : 1);
+            levels[2 * i] = (byte) (lastBitOne ? 1 : -1);
+            levels[2 * i + 1] = (byte) (lastBitOne ? -1 : 1);
+        }
+        return new Signal(levels);
+    }
+
+    /** Bits of {@code data}, most significant bit of each byte first. */
+    static int[] bitsOf(byte[] data) {
+        int[] bits = new int[data.length * 8];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = (data[i >>> 3] >>> (7 - (i & 7))) & 1;
+        }
+        return bits;
+    }
+
+    /**
+     * Encodes a random payload with every scheme and streams all its samples, which the old
+     * 100-doubles-per-bit arrays could not hold for anything beyond a few megabits.
+     */
+    private static void encodePayload(int bytes) {
+        byte[] data = new byte[bytes];
+        new Random(1).nextBytes(data);
+        int[] bits = bitsOf(data);
+        Signal[] signals = {unipolarNRZ(bits), polarNRZ(bits), nrzInverted(bits), bipolarEncoding(bits),
+                manchesterEncoding(bits), differentialManchesterEncoding(bits)};
+        String[] names = {"Unipolar NRZ", "Polar NRZ", "NRZ Inverted", "Bipolar", "Manchester", "Differential Manchester"};
+        System.out.printf("%,d byte payload: %,d bits, %,d samples per scheme, %,d bytes stored per scheme%n",
+                bytes, bits.length, signals[0].sampleCount(), (long) signals[0].halfBitCount());
+        for (int s = 0; s < signals.length; s++) {
+            long start = System.nanoTime();
+            double sum = 0;
+            for (PrimitiveIterator.OfDouble it = signals[s].samples(); it.hasNext(); ) {
+                sum += it.nextDouble();
+            }
+            int runCount = 0;
+            for (Runs runs = signals[s].runs(); runs.next(); ) {
+                runCount++;
+            }
+            System.out.printf("%-24s DC %+.4f, %,d runs, streamed in %.0f ms%n",
+                    names[s], sum / signals[s].sampleCount(), runCount, (System.nanoTime() - start) / 1e6);
         }
-        return signal;
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--payload")) {
+            encodePayload(args.length > 1 ? Integer.parseInt(args[1]) : 1 << 20);
+            return;
+        }
         int[] bits = {1, 0, 1, 1, 0, 0, 1, 0};
 
         SwingUtilities.invokeLater(() -> {
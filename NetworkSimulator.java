@@ -0,0 +1,623 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Deterministic discrete-event backend for the sliding-window protocols.
+ * A virtual nanosecond clock is driven by a primitive event heap; links model bandwidth,
+ * propagation delay, jitter, Gilbert-Elliott burst loss and reordering, and every run
+ * draws from its own seeded RNG so the same scenario always produces the same numbers.
+ */
+public class NetworkSimulator {
+    private static final int FRAME_ARRIVAL = 0;
+    private static final int ACK_ARRIVAL = 1;
+    private static final int TIMEOUT = 2;
+
+    enum Protocol { GO_BACK_N, SELECTIVE_REPEAT }
+
+    /**
+     * Immutable link parameters. Loss is a two-state Gilbert-Elliott chain; Bernoulli loss is the
+     * case lossGood == lossBad. A positive bufferBytes makes the link drop-tail once that much is queued.
+     */
+    record LinkModel(double bitsPerSecond, long delayNs, long jitterNs, double reorderProbability,
+                     double goodToBad, double badToGood, double lossGood, double lossBad, long bufferBytes) {
+
+        static LinkModel of(double bitsPerSecond, long delayNs) {
+            return new LinkModel(bitsPerSecond, delayNs, 0, 0, 0, 1, 0, 0, 0);
+        }
+
+        LinkModel withJitter(long jitterNs) {
+            return new LinkModel(bitsPerSecond, delayNs, jitterNs, reorderProbability, goodToBad, badToGood, lossGood, lossBad, bufferBytes);
+        }
+
+        LinkModel withReordering(double probability) {
+            return new LinkModel(bitsPerSecond, delayNs, jitterNs, probability, goodToBad, badToGood, lossGood, lossBad, bufferBytes);
+        }
+
+        LinkModel withLoss(double probability) {
+            return new LinkModel(bitsPerSecond, delayNs, jitterNs, reorderProbability, 0, 1, probability, probability, bufferBytes);
+        }
+
+        LinkModel withBurstLoss(double goodToBad, double badToGood, double lossGood, double lossBad) {
+            return new LinkModel(bitsPerSecond, delayNs, jitterNs, reorderProbability, goodToBad, badToGood, lossGood, lossBad, bufferBytes);
+        }
+
+        LinkModel withBuffer(long bytes) {
+            return new LinkModel(bitsPerSecond, delayNs, jitterNs, reorderProbability, goodToBad, badToGood, lossGood, lossBad, bytes);
+        }
+
+        /** Bytes in flight on the wire for one propagation delay. */
+        long bandwidthDelayBytes() {
+            return (long) (bitsPerSecond * delayNs / 8e9);
+        }
+
+        /** Long-run loss rate of the Gilbert-Elliott chain. */
+        double meanLoss() {
+            double pBad = goodToBad + badToGood == 0 ? 0 : goodToBad / (goodToBad + badToGood);
+            return pBad * lossBad + (1 - pBad) * lossGood;
+        }
+
+        long transmissionNs(int bytes) {
+            return (long) Math.ceil(bytes * 8e9 / bitsPerSecond);
+        }
+    }
+
+    /**
+     * One run. windowSize bounds the sequence window (the receiver's buffer); the congestion
+     * controller decides how much of it is used. timeoutNs is the fixed retransmission timeout.
+     */
+    record Scenario(Protocol protocol, int windowSize, int totalFrames, int frameBytes, int ackBytes,
+                    LinkModel forward, LinkModel reverse, long timeoutNs, long seed,
+                    CongestionControl.Algorithm congestionControl) {
+
+        static Scenario of(Protocol protocol, int windowSize, int totalFrames, LinkModel forward, long seed) {
+            LinkModel reverse = forward.withLoss(0);
+            long rtt = forward.delayNs() + reverse.delayNs() + forward.transmissionNs(1500) + reverse.transmissionNs(64)
+                    + forward.jitterNs() + reverse.jitterNs();
+            // A full window queued behind the link must not look like loss
+            long queueing = (long) windowSize * forward.transmissionNs(1500);
+            return new Scenario(protocol, windowSize, totalFrames, 1500, 64, forward, reverse, 3 * rtt + queueing, seed,
+                    CongestionControl.Algorithm.FIXED);
+        }
+
+        /** minTimeoutNs becomes the floor of the RTO's variance term, like Linux's rto_min. */
+        Scenario withCongestionControl(CongestionControl.Algorithm algorithm, long minTimeoutNs) {
+            return new Scenario(protocol, windowSize, totalFrames, frameBytes, ackBytes, forward, reverse, minTimeoutNs, seed, algorithm);
+        }
+    }
+
+    record TraceSample(long timeNs, double cwnd, long srttNs, double throughputMbps) { }
+
+    record Result(Scenario scenario, long delivered, long transmissions, long virtualNs, long events, long wallNs,
+                  List<TraceSample> trace) {
+        double goodputMbps() {
+            return delivered * scenario.frameBytes() * 8e3 / Math.max(1, virtualNs);
+        }
+
+        double retransmissionRate() {
+            return delivered == 0 ? 0 : (double) (transmissions - delivered) / transmissions;
+        }
+    }
+
+    /** Binary min-heap of events ordered by (time, insertion order), stored in parallel primitive arrays. */
+    static class EventQueue {
+        private long[] time = new long[1024];
+        private long[] order = new long[1024];
+        private int[] kind = new int[1024];
+        private int[] a = new int[1024];
+        private int[] b = new int[1024];
+        private int size;
+        private long inserted;
+
+        long currentTime;
+        int currentKind;
+        int currentA;
+        int currentB;
+
+        void push(long at, int eventKind, int argA, int argB) {
+            if (size == time.length) {
+                int capacity = size << 1;
+                time = Arrays.copyOf(time, capacity);
+                order = Arrays.copyOf(order, capacity);
+                kind = Arrays.copyOf(kind, capacity);
+                a = Arrays.copyOf(a, capacity);
+                b = Arrays.copyOf(b, capacity);
+            }
+            long seq = inserted++;
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (time[parent] < at || (time[parent] == at && order[parent] < seq)) break;
+                move(parent, i);
+                i = parent;
+            }
+            set(i, at, seq, eventKind, argA, argB);
+        }
+
+        /** Removes the earliest event into the current* fields. */
+        boolean pop() {
+            if (size == 0) return false;
+            currentTime = time[0];
+            currentKind = kind[0];
+            currentA = a[0];
+            currentB = b[0];
+            int last = --size;
+            if (last == 0) return true;
+            long t = time[last];
+            long o = order[last];
+            int k = kind[last];
+            int x = a[last];
+            int y = b[last];
+            int i = 0;
+            int half = last >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < last && (time[right] < time[child] || (time[right] == time[child] && order[right] < order[child]))) {
+                    child = right;
+                }
+                if (t < time[child] || (t == time[child] && o < order[child])) break;
+                move(child, i);
+                i = child;
+            }
+            set(i, t, o, k, x, y);
+            return true;
+        }
+
+        private void move(int from, int to) {
+            time[to] = time[from];
+            order[to] = order[from];
+            kind[to] = kind[from];
+            a[to] = a[from];
+            b[to] = b[from];
+        }
+
+        private void set(int i, long at, long seq, int eventKind, int argA, int argB) {
+            time[i] = at;
+            order[i] = seq;
+            kind[i] = eventKind;
+            a[i] = argA;
+            b[i] = argB;
+        }
+    }
+
+    /** Mutable per-run state of one direction of a link. */
+    static class LinkState {
+        private final LinkModel model;
+        private final SplittableRandom rng;
+        private boolean badState;
+        private long busyUntil;
+        private long lastArrival;
+
+        LinkState(LinkModel model, SplittableRandom rng) {
+            this.model = model;
+            this.rng = rng;
+        }
+
+        /** Returns the arrival time of a frame handed to the link at {@code now}, or -1 if it is lost. */
+        long send(long now, int bytes) {
+            long backlogNs = Math.max(0, busyUntil - now);
+            if (model.bufferBytes() > 0 && backlogNs * model.bitsPerSecond() / 8e9 + bytes > model.bufferBytes()) {
+                return -1;
+            }
+            busyUntil = Math.max(now, busyUntil) + model.transmissionNs(bytes);
+            badState = badState ? rng.nextDouble() >= model.badToGood() : rng.nextDouble() < model.goodToBad();
+            if (rng.nextDouble() < (badState ? model.lossBad() : model.lossGood())) {
+                return -1;
+            }
+            long arrival = busyUntil + model.delayNs();
+            if (model.jitterNs() > 0) {
+                arrival += rng.nextLong(model.jitterNs() + 1);
+            }
+            if (model.reorderProbability() > 0 && rng.nextDouble() < model.reorderProbability()) {
+                // Held back past later frames without disturbing the FIFO order of the rest
+                return arrival + model.delayNs() / 2 + rng.nextLong(model.delayNs() + 1);
+            }
+            arrival = Math.max(arrival, lastArrival);
+            lastArrival = arrival;
+            return arrival;
+        }
+    }
+
+    /** One protocol run. Instances are single-threaded; sweeps run many of them in parallel. */
+    static class Run {
+        private static final long SAMPLE_INTERVAL_NS = 100_000_000L;
+        private static final int DUPLICATE_ACK_THRESHOLD = 3;
+
+        private final Scenario scenario;
+        private final EventQueue events = new EventQueue();
+        private final LinkState forward;
+        private final LinkState reverse;
+        private final SequenceWindow acked;
+        private final SequenceWindow receiver;
+        private final CongestionControl congestion;
+        private final int[] slotSequence;
+        private final int[] timerGeneration;
+        private final long[] sentAt;
+        private final long[] lastSent;
+        private final IntConsumer countDelivery;
+        private final List<TraceSample> trace = new ArrayList<>();
+        private int nextToSend;
+        private long delivered;
+        private long transmissions;
+        private long processed;
+
+        private long srtt;
+        private long rttVariance;
+        private int backoff = 1;
+        private int duplicateAcks;
+        private boolean inRecovery;
+        private int recoveryPoint;
+        private long recoveryStart;
+        private long lastTimeout = -1;
+        private int highestAcked = -1;
+
+        private long nextSampleAt = SAMPLE_INTERVAL_NS;
+        private long deliveredAtLastSample;
+
+        Run(Scenario scenario) {
+            this.scenario = scenario;
+            SplittableRandom rng = new SplittableRandom(scenario.seed());
+            this.forward = new LinkState(scenario.forward(), rng.split());
+            this.reverse = new LinkState(scenario.reverse(), rng.split());
+            this.acked = new SequenceWindow(scenario.windowSize(), 0);
+            this.receiver = new SequenceWindow(scenario.windowSize(), 0);
+            this.congestion = scenario.congestionControl().create(scenario.windowSize());
+            this.slotSequence = new int[acked.capacity()];
+            this.timerGeneration = new int[acked.capacity()];
+            this.sentAt = new long[acked.capacity()];
+            this.lastSent = new long[acked.capacity()];
+            this.countDelivery = payload -> delivered++;
+        }
+
+        Result execute() {
+            long start = System.nanoTime();
+            fillWindow(0);
+            while (acked.base() < scenario.totalFrames() && events.pop()) {
+                processed++;
+                long now = events.currentTime;
+                if (now >= nextSampleAt) {
+                    sample(now);
+                }
+                switch (events.currentKind) {
+                    case FRAME_ARRIVAL -> onFrameArrival(now, events.currentA);
+                    case ACK_ARRIVAL -> onAckArrival(now, events.currentA, events.currentB);
+                    case TIMEOUT -> onTimeout(now, events.currentA, events.currentB);
+                    default -> throw new IllegalStateException("Unknown event kind " + events.currentKind);
+                }
+            }
+            return new Result(scenario, delivered, transmissions, events.currentTime, processed, System.nanoTime() - start, trace);
+        }
+
+        private void sample(long now) {
+            double mbps = (delivered - deliveredAtLastSample) * scenario.frameBytes() * 8e3 / (now - nextSampleAt + SAMPLE_INTERVAL_NS);
+            trace.add(new TraceSample(now, congestion.cwnd(), srtt, mbps));
+            deliveredAtLastSample = delivered;
+            nextSampleAt = now + SAMPLE_INTERVAL_NS;
+        }
+
+        private int sendWindow() {
+            return Math.min(scenario.windowSize(), Math.max(1, (int) congestion.cwnd()));
+        }
+
+        private void fillWindow(long now) {
+            int limit = Math.min(acked.base() + sendWindow(), scenario.totalFrames());
+            while (nextToSend < limit) {
+                transmit(now, nextToSend++, false);
+            }
+        }
+
+        private void transmit(long now, int seq, boolean retransmission) {
+            transmissions++;
+            int slot = acked.slot(seq);
+            slotSequence[slot] = seq;
+            // Karn's rule: a retransmitted frame's ACK is ambiguous and gives no RTT sample
+            sentAt[slot] = retransmission ? -1 : now;
+            lastSent[slot] = now;
+            long arrival = forward.send(now, scenario.frameBytes());
+            if (arrival >= 0) {
+                events.push(arrival, FRAME_ARRIVAL, seq, 0);
+            }
+            if (scenario.protocol() == Protocol.SELECTIVE_REPEAT || seq == acked.base()) {
+                armTimer(now, slot);
+            }
+        }
+
+        private void armTimer(long now, int slot) {
+            // Cancelling is a generation bump; stale TIMEOUT events are dropped when popped
+            events.push(now + retransmissionTimeout(), TIMEOUT, slot, ++timerGeneration[slot]);
+        }
+
+        private boolean adaptive() {
+            return scenario.congestionControl() != CongestionControl.Algorithm.FIXED;
+        }
+
+        /**
+         * The fixed-window protocols keep the scenario's constant timeout. Adaptive senders use the
+         * RFC 6298 estimator (1 s before the first sample) with the scenario timeout as the floor of
+         * the variance term, as Linux does, doubled per consecutive timeout.
+         */
+        private long retransmissionTimeout() {
+            if (!adaptive()) {
+                return scenario.timeoutNs();
+            }
+            long estimate = srtt == 0 ? 1_000_000_000L : srtt + Math.max(4 * rttVariance, scenario.timeoutNs());
+            return estimate * backoff;
+        }
+
+        private void sampleRtt(long now, int slot) {
+            if (sentAt[slot] < 0) return;
+            long rtt = now - sentAt[slot];
+            if (srtt == 0) {
+                srtt = rtt;
+                rttVariance = rtt / 2;
+            } else {
+                rttVariance += (Math.abs(srtt - rtt) - rttVariance) / 4;
+                srtt += (rtt - srtt) / 8;
+            }
+        }
+
+        private void onFrameArrival(long now, int seq) {
+            if (scenario.protocol() == Protocol.GO_BACK_N) {
+                if (seq == receiver.base()) {
+                    receiver.accept(seq, seq);
+                    receiver.slide(countDelivery);
+                }
+                sendAck(now, receiver.base() - 1);
+            } else {
+                if (receiver.accept(seq, seq)) {
+                    receiver.slide(countDelivery);
+                }
+                // Frames below the window were delivered but their ACK was lost; acknowledge again
+                if (seq - receiver.base() < scenario.windowSize() && receiver.base() - seq <= scenario.windowSize()) {
+                    sendAck(now, seq);
+                }
+            }
+        }
+
+        /** Every ACK names the frame that triggered it and carries the receiver's cumulative position. */
+        private void sendAck(long now, int seq) {
+            long arrival = reverse.send(now, scenario.ackBytes());
+            if (arrival >= 0) {
+                events.push(arrival, ACK_ARRIVAL, seq, receiver.base() - 1);
+            }
+        }
+
+        private void onAckArrival(long now, int seq, int cumulative) {
+            int base = acked.base();
+            if (acked.inWindow(seq) && seq - nextToSend < 0 && !acked.contains(seq)) {
+                acked.accept(seq, seq);
+                if (seq - highestAcked > 0) highestAcked = seq;
+                timerGeneration[acked.slot(seq)]++;
+                sampleRtt(now, acked.slot(seq));
+            }
+            if (cumulative - base >= 0 && cumulative - nextToSend < 0) {
+                if (cumulative - highestAcked > 0) highestAcked = cumulative;
+                timerGeneration[acked.slot(base)]++;
+                for (int i = base; i - cumulative <= 0; i++) {
+                    acked.accept(i, i);
+                }
+            }
+            int newlyAcked = acked.slide(null);
+
+            if (newlyAcked > 0) {
+                duplicateAcks = 0;
+                backoff = 1;
+                if (inRecovery && acked.base() - recoveryPoint > 0) {
+                    inRecovery = false;
+                    congestion.onRecoveryExit(now);
+                } else if (inRecovery) {
+                    // Partial ACK: more holes were lost, repair them without leaving recovery
+                    repairHoles(now);
+                } else {
+                    congestion.onAck(newlyAcked, now, srtt);
+                }
+                if (scenario.protocol() == Protocol.GO_BACK_N && acked.base() != nextToSend) {
+                    armTimer(now, acked.slot(acked.base()));
+                }
+            } else if (adaptive() && cumulative == base - 1 && base != nextToSend) {
+                duplicateAcks++;
+                if (duplicateAcks == DUPLICATE_ACK_THRESHOLD && !inRecovery) {
+                    inRecovery = true;
+                    recoveryPoint = nextToSend - 1;
+                    recoveryStart = now;
+                    congestion.onFastRetransmit(now);
+                    repairHoles(now);
+                } else if (inRecovery) {
+                    congestion.onDuplicateAck();
+                }
+            }
+            fillWindow(now);
+        }
+
+        private void onTimeout(long now, int slot, int generation) {
+            if (timerGeneration[slot] != generation) {
+                return;
+            }
+            int seq = slotSequence[slot];
+            if (!acked.inWindow(seq) || acked.contains(seq)) {
+                return;
+            }
+            // Per-frame timers of one loss episode expire together; react to the first only
+            if (!adaptive() || lastSent[slot] > lastTimeout) {
+                congestion.onTimeout(now);
+                inRecovery = false;
+                duplicateAcks = 0;
+                backoff = Math.min(backoff * 2, 64);
+                lastTimeout = now;
+            }
+            retransmitFrom(now, seq);
+        }
+
+        /**
+         * Go-Back-N resends everything outstanding. Selective Repeat uses its ACK bitmap as a
+         * scoreboard and resends each hole below the highest ACKed frame once per recovery.
+         */
+        private void repairHoles(long now) {
+            if (scenario.protocol() == Protocol.GO_BACK_N) {
+                retransmitFrom(now, acked.base());
+                return;
+            }
+            for (int seq = acked.base(); seq - highestAcked < 0; seq++) {
+                if (!acked.contains(seq) && lastSent[acked.slot(seq)] < recoveryStart + (seq == acked.base() ? 1 : 0)) {
+                    transmit(now, seq, true);
+                }
+            }
+        }
+
+        private void retransmitFrom(long now, int seq) {
+            if (scenario.protocol() == Protocol.GO_BACK_N) {
+                for (int i = acked.base(); i < nextToSend; i++) {
+                    transmit(now, i, true);
+                }
+            } else {
+                transmit(now, seq, true);
+            }
+        }
+    }
+
+    public static Result simulate(Scenario scenario) {
+        return new Run(scenario).execute();
+    }
+
+    /** Runs every scenario on a pool sized to the machine; results come back in input order. */
+    public static List<Result> sweep(List<Scenario> scenarios) {
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Scenario scenario : scenarios) {
+                futures.add(pool.submit(() -> simulate(scenario)));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--congestion")) {
+            congestionStudy();
+            return;
+        }
+
+        int totalFrames = 20_000;
+        int[] windows = {1, 2, 4, 8, 16, 32, 64, 128, 256};
+        double[] lossRates = {0.0, 0.01, 0.05, 0.1};
+        // 10 Mbit/s, 20 ms one way, 1 ms jitter, 1% reordering
+        LinkModel base = LinkModel.of(10e6, 20_000_000L).withJitter(1_000_000L).withReordering(0.01);
+
+        List<Scenario> scenarios = new ArrayList<>();
+        for (Protocol protocol : Protocol.values()) {
+            for (double loss : lossRates) {
+                for (int window : windows) {
+                    scenarios.add(Scenario.of(protocol, window, totalFrames, base.withLoss(loss), 1));
+                }
+            }
+            // Same mean loss as the 5% Bernoulli curve, but arriving in bursts
+            for (int window : windows) {
+                LinkModel bursty = base.withBurstLoss(0.0125, 0.2, 0.0, 0.85);
+                scenarios.add(Scenario.of(protocol, window, totalFrames, bursty, 1));
+            }
+        }
+
+        long start = System.nanoTime();
+        List<Result> results = sweep(scenarios);
+        long wall = System.nanoTime() - start;
+
+        long totalEvents = 0;
+        long busyNs = 0;
+        Iterator<Result> it = results.iterator();
+        for (Protocol protocol : Protocol.values()) {
+            System.out.println(protocol + " goodput (Mbit/s) vs window");
+            System.out.print(String.format("%-14s", "loss \\ window"));
+            for (int window : windows) System.out.printf("%8d", window);
+            System.out.println();
+            for (int row = 0; row <= lossRates.length; row++) {
+                String label = row < lossRates.length ? String.format("%.2f", lossRates[row]) : "burst 0.05";
+                System.out.printf("%-14s", label);
+                for (int ignored : windows) {
+                    Result r = it.next();
+                    totalEvents += r.events();
+                    busyNs += r.wallNs();
+                    System.out.printf("%8.3f", r.goodputMbps());
+                }
+                System.out.println();
+            }
+            System.out.println();
+        }
+
+        System.out.printf("%d runs, %,d events in %.2f s wall (%.1f M events/s per core, %.1f M events/s total)%n",
+                results.size(), totalEvents, wall / 1e9, totalEvents / (busyNs / 1e3), totalEvents / (wall / 1e3));
+    }
+
+    /**
+     * Throughput against bandwidth-delay product for a constant window versus Reno and CUBIC,
+     * on drop-tail links buffered to one BDP, followed by cwnd/RTT/throughput traces of one flow.
+     */
+    private static void congestionStudy() {
+        int fixedWindow = 16;
+        int sequenceWindow = 16_384;
+        int totalFrames = 60_000;
+        double[] bandwidths = {10e6, 50e6, 200e6};
+        long[] delays = {5_000_000L, 25_000_000L, 100_000_000L};
+        CongestionControl.Algorithm[] algorithms = CongestionControl.Algorithm.values();
+
+        List<Scenario> scenarios = new ArrayList<>();
+        for (double bandwidth : bandwidths) {
+            for (long delay : delays) {
+                LinkModel link = LinkModel.of(bandwidth, delay).withJitter(delay / 20);
+                link = link.withBuffer(Math.max(2 * link.bandwidthDelayBytes(), 16 * 1500));
+                for (CongestionControl.Algorithm algorithm : algorithms) {
+                    int window = algorithm == CongestionControl.Algorithm.FIXED ? fixedWindow : sequenceWindow;
+                    Scenario scenario = Scenario.of(Protocol.SELECTIVE_REPEAT, window, totalFrames, link, 7);
+                    scenarios.add(algorithm == CongestionControl.Algorithm.FIXED ? scenario
+                            : scenario.withCongestionControl(algorithm, 200_000_000L));
+                }
+            }
+        }
+        List<Result> results = sweep(scenarios);
+
+        System.out.printf("%-10s %-8s %10s", "Mbit/s", "delay", "BDP frames");
+        for (CongestionControl.Algorithm algorithm : algorithms) {
+            System.out.printf("%12s", algorithm == CongestionControl.Algorithm.FIXED ? "FIXED(" + fixedWindow + ")" : algorithm);
+        }
+        System.out.println("   (goodput Mbit/s, retransmitted %)");
+        Iterator<Result> it = results.iterator();
+        for (double bandwidth : bandwidths) {
+            for (long delay : delays) {
+                LinkModel link = LinkModel.of(bandwidth, delay);
+                System.out.printf("%-10.0f %-8s %10d", bandwidth / 1e6, delay / 1_000_000 + " ms",
+                        2 * link.bandwidthDelayBytes() / 1500);
+                for (CongestionControl.Algorithm ignored : algorithms) {
+                    Result r = it.next();
+                    System.out.printf("%7.1f/%-4.1f", r.goodputMbps(), 100 * r.retransmissionRate());
+                }
+                System.out.println();
+            }
+        }
+
+        LinkModel traced = LinkModel.of(50e6, 25_000_000L).withJitter(1_000_000L);
+        traced = traced.withBuffer(2 * traced.bandwidthDelayBytes());
+        for (CongestionControl.Algorithm algorithm : new CongestionControl.Algorithm[]{CongestionControl.Algorithm.RENO, CongestionControl.Algorithm.CUBIC}) {
+            Result r = simulate(Scenario.of(Protocol.SELECTIVE_REPEAT, sequenceWindow, totalFrames, traced, 7)
+                    .withCongestionControl(algorithm, 200_000_000L));
+            System.out.println();
+            System.out.println(algorithm + " trace, 50 Mbit/s, 25 ms one way (BDP " + 2 * traced.bandwidthDelayBytes() / 1500 + " frames)");
+            System.out.printf("%8s %10s %10s %10s%n", "t (s)", "cwnd", "srtt (ms)", "Mbit/s");
+            for (int i = 0; i < r.trace().size(); i += 5) {
+                TraceSample sample = r.trace().get(i);
+                System.out.printf("%8.1f %10.1f %10.1f %10.2f%n",
+                        sample.timeNs() / 1e9, sample.cwnd(), sample.srttNs() / 1e6, sample.throughputMbps());
+            }
+        }
+    }
+}
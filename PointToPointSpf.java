@@ -0,0 +1,527 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Shortest path between one pair of routers without settling the whole graph. Searches run
+ * from both ends at once and stop as soon as the two frontiers prove the best meeting point;
+ * with {@link Landmarks} they become ALT searches (A*, landmarks, triangle inequality), where
+ * precomputed distances to a few far-apart routers give lower bounds that steer both searches
+ * towards each other. Per-vertex state is tagged with a query stamp, so a query only costs
+ * what it touches.
+ */
+public class PointToPointSpf {
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int NONE = -1;
+    private static final int ACTIVE_LANDMARKS = 4;
+
+    /**
+     * Distances from and to a set of landmark routers, stored vertex-major so the bounds for one
+     * vertex are a single contiguous run. Selection is farthest-first; each landmark's reverse
+     * search is handed to a pool as soon as the landmark is chosen.
+     */
+    public static class Landmarks {
+        private static final int MAGIC = 0x4C544C41;
+        private static final int VERSION = 1;
+
+        private final int[] landmarks;
+        private final int[] fromLandmark;
+        private final int[] toLandmark;
+        private final int n;
+
+        private Landmarks(int[] landmarks, int[] fromLandmark, int[] toLandmark, int n) {
+            this.landmarks = landmarks;
+            this.fromLandmark = fromLandmark;
+            this.toLandmark = toLandmark;
+            this.n = n;
+        }
+
+        public static Landmarks compute(CsrGraph graph, int count, ForkJoinPool pool) {
+            int n = graph.vertexCount();
+            if (count < 1 || count > n) {
+                throw new IllegalArgumentException("Landmark count must be in [1, " + n + "]: " + count);
+            }
+            if ((long) n * count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(count + " landmarks over " + n + " vertices exceed one int array");
+            }
+            CsrGraph reverse = graph.reversed();
+            int[] landmarks = new int[count];
+            int[] fromLandmark = new int[n * count];
+            int[] toLandmark = new int[n * count];
+            List<ForkJoinTask<?>> reverseSearches = new ArrayList<>();
+
+            int[] distances = new int[n];
+            int[] nearest = new int[n];
+            IndexedDaryHeap heap = new IndexedDaryHeap(n, 4);
+            DijkstraOSPF.dijkstra(graph, new SplittableRandom(count).nextInt(n), distances, heap);
+            int next = farthest(distances);
+            Arrays.fill(nearest, INF);
+            for (int l = 0; l < count; l++) {
+                int landmark = next;
+                int column = l;
+                landmarks[l] = landmark;
+                reverseSearches.add(pool.submit(() -> {
+                    int[] toThis = DijkstraOSPF.dijkstra(reverse, landmark);
+                    for (int v = 0; v < n; v++) {
+                        toLandmark[v * count + column] = toThis[v];
+                    }
+                }));
+                DijkstraOSPF.dijkstra(graph, landmark, distances, heap);
+                for (int v = 0; v < n; v++) {
+                    if (distances[v] == INF) {
+                        throw new IllegalArgumentException("Landmarks need a strongly connected topology; "
+                                + v + " is unreachable from " + landmark);
+                    }
+                    fromLandmark[v * count + l] = distances[v];
+                    nearest[v] = Math.min(nearest[v], distances[v]);
+                }
+                next = farthest(nearest);
+            }
+            for (ForkJoinTask<?> search : reverseSearches) {
+                search.join();
+            }
+            return new Landmarks(landmarks, fromLandmark, toLandmark, n);
+        }
+
+        private static int farthest(int[] distances) {
+            int best = 0;
+            for (int v = 1; v < distances.length; v++) {
+                if (distances[v] != INF && (distances[best] == INF || distances[v] > distances[best])) {
+                    best = v;
+                }
+            }
+            return best;
+        }
+
+        public int count() {
+            return landmarks.length;
+        }
+
+        public int landmark(int i) {
+            return landmarks[i];
+        }
+
+        /** The largest distance in the table, which bounds every landmark lower bound. */
+        int maxDistance() {
+            int max = 0;
+            for (int i = 0; i < fromLandmark.length; i++) {
+                max = Math.max(max, Math.max(fromLandmark[i], toLandmark[i]));
+            }
+            return max;
+        }
+
+        /** Lower bound on the distance from {@code u} to {@code v}, exact whenever a landmark lies on the path. */
+        public int lowerBound(int u, int v) {
+            int k = landmarks.length;
+            int bound = 0;
+            for (int l = 0, ui = u * k, vi = v * k; l < k; l++, ui++, vi++) {
+                bound = Math.max(bound, Math.max(toLandmark[ui] - toLandmark[vi], fromLandmark[vi] - fromLandmark[ui]));
+            }
+            return bound;
+        }
+
+        private int lowerBound(int u, int v, int[] active, int activeCount) {
+            int k = landmarks.length;
+            int bound = 0;
+            for (int i = 0; i < activeCount; i++) {
+                int ui = u * k + active[i];
+                int vi = v * k + active[i];
+                bound = Math.max(bound, Math.max(toLandmark[ui] - toLandmark[vi], fromLandmark[vi] - fromLandmark[ui]));
+            }
+            return bound;
+        }
+
+        /** The {@code active.length} landmarks giving the best bounds for this pair, most useful first. */
+        private int selectActive(int source, int target, int[] active) {
+            int k = landmarks.length;
+            int count = Math.min(active.length, k);
+            int[] bounds = new int[count];
+            Arrays.fill(bounds, -1);
+            for (int l = 0; l < k; l++) {
+                int si = source * k + l;
+                int ti = target * k + l;
+                int bound = Math.max(toLandmark[si] - toLandmark[ti], fromLandmark[ti] - fromLandmark[si]);
+                for (int i = 0; i < count; i++) {
+                    if (bound > bounds[i]) {
+                        System.arraycopy(bounds, i, bounds, i + 1, count - i - 1);
+                        System.arraycopy(active, i, active, i + 1, count - i - 1);
+                        bounds[i] = bound;
+                        active[i] = l;
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+
+        /** Same little-endian section layout as {@link TopologyFile}: header, landmarks, from-table, to-table. */
+        public void save(Path file) throws IOException {
+            int k = landmarks.length;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(k).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                long position = 16;
+                section(channel, FileChannel.MapMode.READ_WRITE, position, k).put(landmarks);
+                position += 4L * k;
+                section(channel, FileChannel.MapMode.READ_WRITE, position, n * k).put(fromLandmark);
+                position += 4L * n * k;
+                section(channel, FileChannel.MapMode.READ_WRITE, position, n * k).put(toLandmark);
+            }
+        }
+
+        /**
+         * Reads a table written by {@link #save}. The header is checked before anything is sized from
+         * it, and the landmark ids and distances before they can index or bound a search.
+         */
+        public static Landmarks load(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() < 16) {
+                    throw new IOException(file + " is not a landmark table");
+                }
+                IntBuffer header = section(channel, FileChannel.MapMode.READ_ONLY, 0, 4);
+                if (header.get(0) != MAGIC || header.get(1) != VERSION) {
+                    throw new IOException(file + " is not a landmark table");
+                }
+                int n = header.get(2);
+                int k = header.get(3);
+                if (n < 1 || k < 1 || k > n || (long) n * k > Integer.MAX_VALUE) {
+                    throw new IOException(file + " has a corrupt header: " + n + " vertices, " + k + " landmarks");
+                }
+                if (channel.size() < 16 + 4L * k + 8L * n * k) {
+                    throw new IOException(file + " is truncated");
+                }
+                int[] landmarks = new int[k];
+                int[] fromLandmark = new int[n * k];
+                int[] toLandmark = new int[n * k];
+                long position = 16;
+                section(channel, FileChannel.MapMode.READ_ONLY, position, k).get(landmarks);
+                position += 4L * k;
+                section(channel, FileChannel.MapMode.READ_ONLY, position, n * k).get(fromLandmark);
+                position += 4L * n * k;
+                section(channel, FileChannel.MapMode.READ_ONLY, position, n * k).get(toLandmark);
+                for (int l = 0; l < k; l++) {
+                    if (landmarks[l] < 0 || landmarks[l] >= n) {
+                        throw new IOException(file + ": landmark " + l + " is vertex " + landmarks[l] + " of " + n);
+                    }
+                }
+                for (int i = 0; i < n * k; i++) {
+                    if (fromLandmark[i] < 0 || fromLandmark[i] == INF || toLandmark[i] < 0 || toLandmark[i] == INF) {
+                        throw new IOException(file + ": vertex " + i / k + " has no valid distance to landmark " + i % k);
+                    }
+                }
+                return new Landmarks(landmarks, fromLandmark, toLandmark, n);
+            }
+        }
+
+        private static IntBuffer section(FileChannel channel, FileChannel.MapMode mode, long position, int count) throws IOException {
+            return channel.map(mode, position, 4L * count).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+
+    private final CsrGraph graph;
+    private final CsrGraph reverse;
+    private final Landmarks landmarks;
+    private final int[] forwardDistance;
+    private final int[] backwardDistance;
+    private final int[] forwardStamp;
+    private final int[] backwardStamp;
+    private final int[] forwardParent;
+    private final int[] backwardParent;
+    private final int[] potential;
+    private final int[] potentialStamp;
+    private final IndexedDaryHeap forwardHeap;
+    private final IndexedDaryHeap backwardHeap;
+    private final int[] active = new int[ACTIVE_LANDMARKS];
+    private int activeCount;
+    private int stamp;
+    private int source;
+    private int target;
+    private int meeting;
+    private int settledNodes;
+
+    /** Plain bidirectional Dijkstra. */
+    public PointToPointSpf(CsrGraph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Bidirectional ALT when {@code landmarks} is non-null. Heap keys are 2d + p and 2d - p in int,
+     * so the graph is rejected if they could overflow: a tentative d is a shortest distance plus one
+     * arc, a shortest distance is at most n - 1 arcs or a detour through a landmark, and |p| is at
+     * most the largest landmark distance.
+     */
+    public PointToPointSpf(CsrGraph graph, Landmarks landmarks) {
+        int n = graph.vertexCount();
+        if (landmarks != null && landmarks.n != n) {
+            throw new IllegalArgumentException("Landmarks cover " + landmarks.n + " vertices, graph has " + n);
+        }
+        int maxWeight = 0;
+        for (int weight : graph.weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative arc weight " + weight);
+            }
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        long longest = (long) Math.max(0, n - 1) * maxWeight;
+        long maxPotential = 0;
+        if (landmarks != null) {
+            maxPotential = landmarks.maxDistance();
+            longest = Math.min(longest, 2 * maxPotential);
+        }
+        if (2 * (longest + maxWeight) + maxPotential > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Distances up to " + longest + " would overflow the int heap keys");
+        }
+        this.graph = graph;
+        this.reverse = graph.reversed();
+        this.landmarks = landmarks;
+        this.forwardDistance = new int[n];
+        this.backwardDistance = new int[n];
+        this.forwardStamp = new int[n];
+        this.backwardStamp = new int[n];
+        this.forwardParent = new int[n];
+        this.backwardParent = new int[n];
+        this.potential = new int[n];
+        this.potentialStamp = new int[n];
+        this.forwardHeap = new IndexedDaryHeap(n, 4);
+        this.backwardHeap = new IndexedDaryHeap(n, 4);
+    }
+
+    /**
+     * Twice the average potential (pi_t - pi_s) / 2 of Ikeda et al.; the forward search is keyed by
+     * 2d + p and the backward one by 2d - p, which keeps both consistent and lets the usual
+     * stopping rule work on the summed keys. Only the landmarks that bound this source-target pair
+     * best are consulted, which keeps each evaluation cheap at little cost in pruning.
+     */
+    private int potential(int v) {
+        if (landmarks == null) {
+            return 0;
+        }
+        if (potentialStamp[v] != stamp) {
+            potentialStamp[v] = stamp;
+            potential[v] = landmarks.lowerBound(v, target, active, activeCount)
+                    - landmarks.lowerBound(source, v, active, activeCount);
+        }
+        return potential[v];
+    }
+
+    /** Distance from {@code source} to {@code target}, or Integer.MAX_VALUE if there is no path. */
+    public int distance(int source, int target) {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(forwardStamp, 0);
+            Arrays.fill(backwardStamp, 0);
+            Arrays.fill(potentialStamp, 0);
+            stamp = 1;
+        }
+        this.source = source;
+        this.target = target;
+        this.settledNodes = 0;
+        this.meeting = NONE;
+        if (landmarks != null) {
+            activeCount = landmarks.selectActive(source, target, active);
+        }
+        forwardHeap.clear();
+        backwardHeap.clear();
+
+        forwardDistance[source] = 0;
+        forwardStamp[source] = stamp;
+        forwardParent[source] = NONE;
+        forwardHeap.insertOrDecrease(source, potential(source));
+        backwardDistance[target] = 0;
+        backwardStamp[target] = stamp;
+        backwardParent[target] = NONE;
+        backwardHeap.insertOrDecrease(target, -potential(target));
+        long best = INF;
+        if (source == target) {
+            meeting = source;
+            return 0;
+        }
+
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+            if ((long) forwardHeap.peekKey() + backwardHeap.peekKey() >= 2 * best) {
+                break;
+            }
+            boolean forward = forwardHeap.peekKey() <= backwardHeap.peekKey();
+            CsrGraph g = forward ? graph : reverse;
+            IndexedDaryHeap heap = forward ? forwardHeap : backwardHeap;
+            int[] distance = forward ? forwardDistance : backwardDistance;
+            int[] seen = forward ? forwardStamp : backwardStamp;
+            int[] parent = forward ? forwardParent : backwardParent;
+            int[] otherDistance = forward ? backwardDistance : forwardDistance;
+            int[] otherSeen = forward ? backwardStamp : forwardStamp;
+            int sign = forward ? 1 : -1;
+
+            int u = heap.pop();
+            settledNodes++;
+            int du = distance[u];
+            for (int arc = g.offsets[u], end = g.offsets[u + 1]; arc < end; arc++) {
+                int v = g.targets[arc];
+                int newDist = du + g.weights[arc];
+                if (seen[v] != stamp || newDist < distance[v]) {
+                    distance[v] = newDist;
+                    seen[v] = stamp;
+                    parent[v] = u;
+                    heap.insertOrDecrease(v, 2 * newDist + sign * potential(v));
+                    if (otherSeen[v] == stamp && (long) newDist + otherDistance[v] < best) {
+                        best = (long) newDist + otherDistance[v];
+                        meeting = v;
+                    }
+                }
+            }
+        }
+        return (int) best;
+    }
+
+    /** Routers along a shortest path, {@code source} first; empty if there is none. */
+    public int[] path(int source, int target) {
+        if (distance(source, target) == INF) {
+            return new int[0];
+        }
+        int forwardHops = 0;
+        int backwardHops = 0;
+        for (int v = meeting; v != source; v = forwardParent[v]) forwardHops++;
+        for (int v = meeting; v != target; v = backwardParent[v]) backwardHops++;
+        int[] path = new int[forwardHops + backwardHops + 1];
+        int i = forwardHops;
+        for (int v = meeting; v != source; v = forwardParent[v]) {
+            path[i--] = v;
+        }
+        path[0] = source;
+        i = forwardHops;
+        for (int v = meeting; v != target; ) {
+            v = backwardParent[v];
+            path[++i] = v;
+        }
+        return path;
+    }
+
+    /** Vertices settled by the last query, summed over both directions. */
+    public int settledNodes() {
+        return settledNodes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int landmarkCount = 16;
+        int queries = 200;
+
+        // A road-like mesh with random link costs; random expanders have too small a diameter
+        // for goal direction to pay off.
+        CsrGraph mesh = CsrGraph.grid(side, side);
+        SplittableRandom rng = new SplittableRandom(5);
+        int[] costs = new int[mesh.arcCount()];
+        for (int u = 0; u < mesh.vertexCount(); u++) {
+            for (int arc = mesh.offsets[u]; arc < mesh.offsets[u + 1]; arc++) {
+                int v = mesh.targets[arc];
+                if (u < v) {
+                    costs[arc] = 10 + rng.nextInt(90);
+                    for (int back = mesh.offsets[v]; back < mesh.offsets[v + 1]; back++) {
+                        if (mesh.targets[back] == u) costs[back] = costs[arc];
+                    }
+                }
+            }
+        }
+        CsrGraph graph = new CsrGraph(mesh.offsets, mesh.targets, costs);
+        int n = graph.vertexCount();
+
+        long start = System.nanoTime();
+        Landmarks landmarks = Landmarks.compute(graph, landmarkCount, ForkJoinPool.commonPool());
+        double precomputeS = (System.nanoTime() - start) / 1e9;
+        Path file = Files.createTempFile("landmarks", ".alt");
+        landmarks.save(file);
+        start = System.nanoTime();
+        landmarks = Landmarks.load(file);
+        double loadMs = (System.nanoTime() - start) / 1e6;
+        System.out.printf("%,d routers: %d landmarks precomputed in %.1f s, table %,d MB, reloaded in %.0f ms%n",
+                n, landmarkCount, precomputeS, Files.size(file) >> 20, loadMs);
+        Files.delete(file);
+
+        int[] sources = new int[queries];
+        int[] targets = new int[queries];
+        int[] expected = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            sources[q] = rng.nextInt(n);
+            targets[q] = rng.nextInt(n);
+        }
+        int[] distances = new int[n];
+        IndexedDaryHeap heap = new IndexedDaryHeap(n, 4);
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            DijkstraOSPF.dijkstra(graph, sources[q], distances, heap);
+            expected[q] = distances[targets[q]];
+        }
+        double fullMs = (System.nanoTime() - start) / 1e6 / queries;
+        System.out.printf("%-24s %10.3f ms/query %,12d settled/query%n", "Full Dijkstra", fullMs, n);
+
+        PointToPointSpf[] searches = {new PointToPointSpf(graph), new PointToPointSpf(graph, landmarks)};
+        String[] names = {"Bidirectional Dijkstra", "Bidirectional ALT"};
+        for (int s = 0; s < searches.length; s++) {
+            PointToPointSpf search = searches[s];
+            for (int q = 0; q < queries; q++) {
+                search.distance(sources[q], targets[q]);
+            }
+            long settled = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                int d = search.distance(sources[q], targets[q]);
+                settled += search.settledNodes();
+                if (d != expected[q]) {
+                    throw new IllegalStateException(names[s] + " found " + d + " for " + sources[q] + " -> "
+                            + targets[q] + ", expected " + expected[q]);
+                }
+            }
+            double ms = (System.nanoTime() - start) / 1e6 / queries;
+            System.out.printf("%-24s %10.3f ms/query %,12d settled/query%n", names[s], ms, settled / queries);
+        }
+
+        // On-demand lookups are mostly between nearby routers; check those against plain
+        // bidirectional search, which was just verified against full Dijkstra.
+        PointToPointSpf alt = searches[1];
+        long settled = 0;
+        long altNs = 0;
+        for (int q = 0; q < queries; q++) {
+            int r = rng.nextInt(side);
+            int c = rng.nextInt(side);
+            int from = r * side + c;
+            int to = Math.floorMod(r + rng.nextInt(-25, 26), side) * side + Math.floorMod(c + rng.nextInt(-25, 26), side);
+            long queryStart = System.nanoTime();
+            int d = alt.distance(from, to);
+            altNs += System.nanoTime() - queryStart;
+            settled += alt.settledNodes();
+            if (d != searches[0].distance(from, to)) {
+                throw new IllegalStateException("ALT disagrees on local query " + from + " -> " + to);
+            }
+        }
+        System.out.printf("%-24s %10.3f ms/query %,12d settled/query (pairs within 25 rows/columns)%n",
+                "Bidirectional ALT", altNs / 1e6 / queries, settled / queries);
+
+        int[] path = alt.path(sources[0], targets[0]);
+        long cost = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            for (int arc = graph.offsets[path[i]]; arc < graph.offsets[path[i] + 1]; arc++) {
+                if (graph.targets[arc] == path[i + 1]) {
+                    cost += graph.weights[arc];
+                    break;
+                }
+            }
+        }
+        if (cost != expected[0]) {
+            throw new IllegalStateException("Path cost " + cost + " does not match distance " + expected[0]);
+        }
+        System.out.printf("Path %d -> %d: %d hops, cost %d%n", sources[0], targets[0], path.length - 1, cost);
+    }
+}
@@ -0,0 +1,180 @@
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Next hop from every router to every destination, computed by one SPF per source on a
+ * fork/join pool. Entries are outgoing port numbers (the index of the arc within the source's
+ * adjacency), so the whole table is one byte per pair when every router has fewer than 255 links
+ * and two bytes otherwise.
+ */
+public class RoutingTable {
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int SOURCES_PER_TASK = 8;
+
+    private final CsrGraph graph;
+    private final int n;
+    private final byte[] narrowPorts;
+    private final char[] widePorts;
+    private final int unreachable;
+
+    private RoutingTable(CsrGraph graph) {
+        this.graph = graph;
+        this.n = graph.vertexCount();
+        long entries = (long) n * n;
+        if (entries > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A full routing table for " + n + " routers does not fit in one array");
+        }
+        int maxDegree = 0;
+        for (int u = 0; u < n; u++) {
+            maxDegree = Math.max(maxDegree, graph.degree(u));
+        }
+        if (maxDegree < 0xFF) {
+            this.narrowPorts = new byte[(int) entries];
+            this.widePorts = null;
+            this.unreachable = 0xFF;
+        } else if (maxDegree < 0xFFFF) {
+            this.narrowPorts = null;
+            this.widePorts = new char[(int) entries];
+            this.unreachable = 0xFFFF;
+        } else {
+            throw new IllegalArgumentException("Router degree " + maxDegree + " exceeds 16-bit port numbers");
+        }
+    }
+
+    /**
+     * Scratch space for one search at a time. A compute call keeps its own free list of these: a leaf
+     * task borrows one and returns it, so there are never more than the tasks running at once and they
+     * all become garbage when the call returns, whichever pool ran it.
+     */
+    private static class Workspace {
+        final int[] distances;
+        final int[] firstPort;
+        final IndexedDaryHeap heap;
+
+        Workspace(int n) {
+            distances = new int[n];
+            firstPort = new int[n];
+            heap = new IndexedDaryHeap(n, 4);
+        }
+    }
+
+    private class SourceRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient Queue<Workspace> workspaces;
+
+        SourceRange(int from, int to, Queue<Workspace> workspaces) {
+            this.from = from;
+            this.to = to;
+            this.workspaces = workspaces;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SOURCES_PER_TASK) {
+                Workspace workspace = workspaces.poll();
+                if (workspace == null) {
+                    workspace = new Workspace(n);
+                }
+                for (int source = from; source < to; source++) {
+                    fillRow(source, workspace);
+                }
+                workspaces.offer(workspace);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SourceRange(from, mid, workspaces), new SourceRange(mid, to, workspaces));
+        }
+    }
+
+    public static RoutingTable compute(CsrGraph graph) {
+        return compute(graph, ForkJoinPool.commonPool());
+    }
+
+    public static RoutingTable compute(CsrGraph graph, ForkJoinPool pool) {
+        RoutingTable table = new RoutingTable(graph);
+        pool.invoke(table.new SourceRange(0, table.n, new ConcurrentLinkedQueue<>()));
+        return table;
+    }
+
+    /** Dijkstra from {@code source}, carrying along the port each vertex was first reached through. */
+    private void fillRow(int source, Workspace workspace) {
+        int[] distances = workspace.distances;
+        int[] firstPort = workspace.firstPort;
+        DijkstraOSPF.dijkstraFirstPorts(graph, source, distances, firstPort, workspace.heap);
+
+        int row = source * n;
+        for (int v = 0; v < n; v++) {
+            int port = v == source || distances[v] == INF ? unreachable : firstPort[v];
+            if (narrowPorts != null) {
+                narrowPorts[row + v] = (byte) port;
+            } else {
+                widePorts[row + v] = (char) port;
+            }
+        }
+    }
+
+    /** Outgoing port of {@code source} towards {@code destination}, or -1 for itself and unreachable nodes. */
+    public int port(int source, int destination) {
+        int index = source * n + destination;
+        int port = narrowPorts != null ? narrowPorts[index] & 0xFF : widePorts[index];
+        return port == unreachable ? -1 : port;
+    }
+
+    /** Neighbouring router {@code source} forwards to for {@code destination}, or -1. */
+    public int nextHop(int source, int destination) {
+        int port = port(source, destination);
+        return port < 0 ? -1 : graph.targets[graph.offsets[source] + port];
+    }
+
+    public int routerCount() {
+        return n;
+    }
+
+    public long sizeInBytes() {
+        return narrowPorts != null ? narrowPorts.length : 2L * widePorts.length;
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        CsrGraph graph = CsrGraph.randomSparse(n, 4, 100, 3);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        // Spot-check a few rows against the plain per-source Dijkstra: following next hops must
+        // accumulate exactly the shortest distance.
+        RoutingTable table = compute(graph);
+        for (int source = 0; source < n; source += Math.max(1, n / 5)) {
+            int[] distances = DijkstraOSPF.dijkstra(graph, source);
+            for (int destination = 0; destination < n; destination += 97) {
+                int cost = 0;
+                for (int at = source; at != destination; ) {
+                    int port = table.port(at, destination);
+                    cost += graph.weights[graph.offsets[at] + port];
+                    at = graph.targets[graph.offsets[at] + port];
+                }
+                if (cost != distances[destination]) {
+                    throw new IllegalStateException("Route " + source + " -> " + destination + " costs " + cost
+                            + ", shortest is " + distances[destination]);
+                }
+            }
+        }
+
+        System.out.printf("%,d routers, %,d arcs, table %,d MB%n", n, graph.arcCount(), table.sizeInBytes() >> 20);
+        double baseline = 0;
+        for (int threads = 1; threads <= cores; threads = threads < cores && threads * 2 > cores ? cores : threads * 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            compute(graph, pool);
+            long start = System.nanoTime();
+            compute(graph, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            pool.shutdown();
+            if (threads == 1) baseline = seconds;
+            System.out.printf("%2d threads: %.2f s (%.0f SPF/s, speedup %.2fx)%n",
+                    threads, seconds, n / seconds, baseline / seconds);
+        }
+    }
+}
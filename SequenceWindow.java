@@ -0,0 +1,98 @@
+import java.util.function.IntConsumer;
+
+/**
+ * Fixed-size sliding window over sequence numbers: a circular buffer indexed by
+ * {@code seq & mask} plus a {@code long[]} bitmap of which slots are filled.
+ * Memory depends only on the window size, never on how many frames have passed through.
+ * Sequence numbers are compared with serial-number arithmetic ({@code seq - base}),
+ * so they may wrap past {@link Integer#MAX_VALUE}.
+ */
+public class SequenceWindow {
+    private final int size;
+    private final int mask;
+    private final int[] ring;
+    private final long[] bitmap;
+    private int base;
+
+    public SequenceWindow(int size, int initialSequence) {
+        if (size <= 0 || size > 1 << 30) {
+            throw new IllegalArgumentException("Invalid window size: " + size);
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        this.size = size;
+        this.mask = capacity - 1;
+        this.ring = new int[capacity];
+        this.bitmap = new long[(capacity + 63) >>> 6];
+        this.base = initialSequence;
+    }
+
+    public boolean inWindow(int seq) {
+        int offset = seq - base;
+        return offset >= 0 && offset < size;
+    }
+
+    public int slot(int seq) {
+        return seq & mask;
+    }
+
+    /** Stores {@code payload} for {@code seq}. Returns false for duplicates and frames outside the window. */
+    public boolean accept(int seq, int payload) {
+        if (!inWindow(seq)) {
+            return false;
+        }
+        int slot = seq & mask;
+        long bit = 1L << slot;
+        if ((bitmap[slot >>> 6] & bit) != 0) {
+            return false;
+        }
+        bitmap[slot >>> 6] |= bit;
+        ring[slot] = payload;
+        return true;
+    }
+
+    public boolean contains(int seq) {
+        if (!inWindow(seq)) {
+            return false;
+        }
+        int slot = seq & mask;
+        return (bitmap[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Releases the contiguous run of filled slots starting at base, handing each payload
+     * to {@code deliver} in sequence order, and moves base past them.
+     */
+    public int slide(IntConsumer deliver) {
+        int released = 0;
+        while (true) {
+            int slot = base & mask;
+            int word = slot >>> 6;
+            int bit = slot & 63;
+            long run = ~(bitmap[word] >>> bit);
+            int length = Math.min(Long.numberOfTrailingZeros(run), Math.min(64 - bit, mask + 1 - slot));
+            if (length == 0) {
+                return released;
+            }
+            if (deliver != null) {
+                for (int i = 0; i < length; i++) {
+                    deliver.accept(ring[slot + i]);
+                }
+            }
+            bitmap[word] &= ~(length == 64 ? -1L : ((1L << length) - 1) << bit);
+            base += length;
+            released += length;
+        }
+    }
+
+    public int base() {
+        return base;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
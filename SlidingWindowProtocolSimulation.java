@@ -3,8 +3,21 @@ import java.util.*;
 public class SlidingWindowProtocolSimulation {
     private static final Random random = new Random();
     private static final double LOSS_PROBABILITY = 0.3;
+    private static final int ROUND_TRIP_TICKS = 2;
+    private static final int TIMEOUT_TICKS = 4;
+    private static final int WHEEL_SIZE = 64;
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--bench")) {
+            benchmarkTimers(100_000);
+            benchmarkWindow(64, 100_000_000L);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--des")) {
+            NetworkSimulator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         int windowSize = 3;
         int totalFrames = 5;
 
@@ -15,51 +28,157 @@ public class SlidingWindowProtocolSimulation {
         simulateProtocol(windowSize, totalFrames, false);
     }
 
+    static class Window {
+        final SequenceWindow acked;
+        final SequenceWindow receiver;
+        final int[] slotSequence;
+        int nextToSend;
+
+        Window(int size) {
+            this.acked = new SequenceWindow(size, 0);
+            this.receiver = new SequenceWindow(size, 0);
+            this.slotSequence = new int[acked.capacity()];
+        }
+    }
+
     private static void simulateProtocol(int windowSize, int totalFrames, boolean isGoBackN) {
-        int base = 0;
-        Set<Integer> receivedFrames = new HashSet<>();
-
-        while (base < totalFrames) {
-            System.out.println("Current window: [" + base + ", " + Math.min(base + windowSize - 1, totalFrames - 1) + "]");
-
-            for (int i = base; i < Math.min(base + windowSize, totalFrames); i++) {
-                if (!receivedFrames.contains(i)) {
-                    boolean frameLost = random.nextDouble() < LOSS_PROBABILITY;
-                    System.out.println("Sending frame " + i + (frameLost ? " (lost)" : " (received)"));
-                    if (!frameLost) {
-                        receivedFrames.add(i);
-                    }
-                }
+        // Frames in flight are identified by their ring slot in both wheels
+        Window window = new Window(windowSize);
+        TimerWheel retransmitTimers = new TimerWheel(window.acked.capacity(), WHEEL_SIZE);
+        TimerWheel ackArrivals = new TimerWheel(window.acked.capacity(), WHEEL_SIZE);
+        long tick = 0;
+
+        while (window.acked.base() < totalFrames) {
+            int base = window.acked.base();
+            System.out.println("Time " + tick + ": window [" + base + ", " + Math.min(base + windowSize - 1, totalFrames - 1) + "]");
+
+            while (window.nextToSend < Math.min(base + windowSize, totalFrames)) {
+                transmit(window.nextToSend++, window, isGoBackN, retransmitTimers, ackArrivals);
             }
 
-            if (isGoBackN) {
-                if (receivedFrames.contains(base)) {
-                    while (receivedFrames.contains(base) && base < totalFrames) {
-                        System.out.println("Acknowledging frame " + base);
-                        base++;
+            tick++;
+            ackArrivals.advanceTo(tick, slot -> {
+                int seq = window.slotSequence[slot];
+                if (!window.acked.inWindow(seq)) return;
+                // A newly ACKed frame stops its timer at once, even if it sits above a gap
+                if (isGoBackN) {
+                    // Cumulative ACK: everything up to and including seq is delivered
+                    for (int i = window.acked.base(); i - seq <= 0; i++) {
+                        if (window.acked.accept(i, i)) {
+                            retransmitTimers.cancel(window.acked.slot(i));
+                        }
                     }
-                } else {
-                    System.out.println("Timeout: Go-Back-N to frame " + base);
+                } else if (window.acked.accept(seq, seq)) {
+                    retransmitTimers.cancel(slot);
                 }
-            } else {
-                for (int i = base; i < Math.min(base + windowSize, totalFrames); i++) {
-                    if (receivedFrames.contains(i)) {
-                        System.out.println("Acknowledging frame " + i);
-                        if (i == base) {
-                            while (receivedFrames.contains(base) && base < totalFrames) {
-                                base++;
-                            }
-                        }
-                    } else {
-                        System.out.println("Timeout: Resend frame " + i);
+                window.acked.slide(acknowledged -> System.out.println("Acknowledging frame " + acknowledged));
+            });
+            retransmitTimers.advanceTo(tick, slot -> {
+                int seq = window.slotSequence[slot];
+                if (isGoBackN) {
+                    if (seq != window.acked.base()) return;
+                    System.out.println("Timeout: Go-Back-N to frame " + seq);
+                    for (int i = seq; i < window.nextToSend; i++) {
+                        transmit(i, window, true, retransmitTimers, ackArrivals);
                     }
+                } else {
+                    System.out.println("Timeout: Resend frame " + seq);
+                    transmit(seq, window, false, retransmitTimers, ackArrivals);
                 }
-            }
+            });
 
-            System.out.println("New base: " + base);
-            System.out.println();
+            if (window.acked.base() != base) {
+                System.out.println("New base: " + window.acked.base());
+                System.out.println();
+            }
         }
 
         System.out.println("All frames transmitted successfully");
     }
-}
\ No newline at end of file
+
+    private static void transmit(int seq, Window window, boolean isGoBackN,
+                                 TimerWheel retransmitTimers, TimerWheel ackArrivals) {
+        int slot = window.acked.slot(seq);
+        window.slotSequence[slot] = seq;
+        boolean frameLost = random.nextDouble() < LOSS_PROBABILITY;
+        System.out.println("Sending frame " + seq + (frameLost ? " (lost)" : " (received)"));
+        retransmitTimers.arm(slot, TIMEOUT_TICKS);
+        if (frameLost) return;
+
+        if (isGoBackN) {
+            // The receiver only accepts the next in-order frame and discards the rest
+            if (seq != window.receiver.base()) return;
+            window.receiver.accept(seq, seq);
+            window.receiver.slide(null);
+        } else if (window.receiver.accept(seq, seq)) {
+            // Buffered out of order until the gap below it is filled; duplicates are re-acknowledged
+            window.receiver.slide(null);
+        }
+        ackArrivals.arm(slot, ROUND_TRIP_TICKS);
+    }
+
+    private static void benchmarkTimers(int outstandingFrames) {
+        TimerWheel wheel = new TimerWheel(outstandingFrames, 4096);
+        long[] expiredCount = new long[1];
+
+        for (int round = 0; round < 5; round++) {
+            expiredCount[0] = 0;
+            long start = System.nanoTime();
+            for (int id = 0; id < outstandingFrames; id++) {
+                wheel.arm(id, 1 + random.nextInt(10_000));
+            }
+            long armed = System.nanoTime();
+            for (int id = 0; id < outstandingFrames; id += 2) {
+                wheel.cancel(id);
+            }
+            long cancelled = System.nanoTime();
+            wheel.advanceTo(wheel.currentTick() + 10_000, id -> expiredCount[0]++);
+            long drained = System.nanoTime();
+
+            System.out.printf("Round %d: %d timers, arm %.1f ns/op, cancel %.1f ns/op, expire %.1f ns/op (%d fired)%n",
+                    round, outstandingFrames,
+                    (double) (armed - start) / outstandingFrames,
+                    (double) (cancelled - armed) / (outstandingFrames / 2),
+                    (double) (drained - cancelled) / Math.max(1, expiredCount[0]),
+                    expiredCount[0]);
+        }
+    }
+
+    /**
+     * Pushes {@code totalFrames} through a Selective Repeat sender/receiver pair without
+     * printing or timers. Sequence numbers start just below Integer.MAX_VALUE so the run
+     * wraps around, and window state stays at a few hundred bytes however long it runs.
+     */
+    private static void benchmarkWindow(int windowSize, long totalFrames) {
+        SplittableRandom rng = new SplittableRandom(42);
+        int start = Integer.MAX_VALUE - 1_000;
+        SequenceWindow sender = new SequenceWindow(windowSize, start);
+        SequenceWindow receiver = new SequenceWindow(windowSize, start);
+        long[] delivered = new long[1];
+        int nextToSend = start;
+        long transmissions = 0;
+
+        long begin = System.nanoTime();
+        while (delivered[0] < totalFrames) {
+            int limit = sender.base() + windowSize;
+            for (int seq = sender.base(); seq - limit < 0; seq++) {
+                if (seq - nextToSend >= 0) {
+                    if (delivered[0] + (seq - sender.base()) >= totalFrames) break;
+                    nextToSend = seq + 1;
+                } else if (sender.contains(seq)) {
+                    continue;
+                }
+                transmissions++;
+                if (rng.nextDouble() < LOSS_PROBABILITY) continue;
+                receiver.accept(seq, seq);
+                sender.accept(seq, seq);
+            }
+            receiver.slide(payload -> delivered[0]++);
+            sender.slide(null);
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        System.out.printf("Window %d: %,d frames delivered (%,d transmissions, base wrapped to %d) in %.2f s, %.1f M frames/s%n",
+                windowSize, delivered[0], transmissions, sender.base(), elapsed / 1e9, delivered[0] / (elapsed / 1e3));
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Hashed timing wheel for per-frame retransmission timers.
+ * Timers are identified by a small integer id (the frame's slot in the send window)
+ * and linked into their bucket through primitive arrays, so arm and cancel are O(1)
+ * and nothing is allocated per timer.
+ */
+public class TimerWheel {
+    private static final int NONE = -1;
+
+    private final int mask;
+    private final int[] bucketHead;
+    private final int[] next;
+    private final int[] prev;
+    private final int[] bucket;
+    private final long[] deadline;
+    private final int[] expired;
+    private long currentTick;
+    private int activeTimers;
+
+    public TimerWheel(int capacity, int wheelSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.bucketHead = new int[size];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.bucket = new int[capacity];
+        this.deadline = new long[capacity];
+        this.expired = new int[capacity];
+        Arrays.fill(bucketHead, NONE);
+        Arrays.fill(bucket, NONE);
+    }
+
+    public void arm(int id, long delayTicks) {
+        if (bucket[id] != NONE) {
+            unlink(id);
+        }
+        long expiry = currentTick + Math.max(1, delayTicks);
+        int b = (int) (expiry & mask);
+        deadline[id] = expiry;
+        bucket[id] = b;
+        prev[id] = NONE;
+        next[id] = bucketHead[b];
+        if (bucketHead[b] != NONE) {
+            prev[bucketHead[b]] = id;
+        }
+        bucketHead[b] = id;
+        activeTimers++;
+    }
+
+    public boolean cancel(int id) {
+        if (bucket[id] == NONE) {
+            return false;
+        }
+        unlink(id);
+        return true;
+    }
+
+    public boolean isArmed(int id) {
+        return bucket[id] != NONE;
+    }
+
+    /**
+     * Advances the wheel one tick at a time up to {@code tick}, firing every timer whose
+     * deadline has been reached. Timers scheduled more than one revolution ahead share a
+     * bucket with nearer ones and are simply skipped until their round comes up.
+     */
+    public void advanceTo(long tick, IntConsumer onExpiry) {
+        while (currentTick < tick) {
+            currentTick++;
+            if (activeTimers == 0) {
+                currentTick = tick;
+                break;
+            }
+            // Unlink first, fire second, so callbacks may re-arm or cancel freely
+            int expiredCount = 0;
+            int id = bucketHead[(int) (currentTick & mask)];
+            while (id != NONE) {
+                int following = next[id];
+                if (deadline[id] <= currentTick) {
+                    unlink(id);
+                    expired[expiredCount++] = id;
+                }
+                id = following;
+            }
+            for (int i = 0; i < expiredCount; i++) {
+                onExpiry.accept(expired[i]);
+            }
+        }
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int activeTimers() {
+        return activeTimers;
+    }
+
+    private void unlink(int id) {
+        int b = bucket[id];
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            bucketHead[b] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        bucket[id] = NONE;
+        activeTimers--;
+    }
+}
@@ -0,0 +1,333 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Binary CSR topology files. Layout, all little-endian:
+ * <pre>
+ *   0  int   magic "CSRG"
+ *   4  int   version (1)
+ *   8  int   vertex count n
+ *  12  int   arc count m
+ *  16  int[n + 1] offsets
+ *      int[m]     targets
+ *      int[m]     weights
+ * </pre>
+ * Files are produced from whitespace-separated edge lists ({@code u v [weight]}, '#' comments)
+ * in two streaming passes, and opened with {@link #map}, which memory-maps the sections
+ * read-only: nothing is parsed or copied onto the heap, and concurrent processes mapping the
+ * same file share its pages. Opening makes one validating pass over the three sections.
+ */
+public class TopologyFile {
+    private static final int MAGIC = 0x47525343;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    /** Read-only view of a mapped topology file with the same arc layout as {@link CsrGraph}. */
+    public static class MappedCsrGraph implements CsrAdjacency {
+        private final IntBuffer offsets;
+        private final IntBuffer targets;
+        private final IntBuffer weights;
+        private final int vertexCount;
+        private final int arcCount;
+
+        private MappedCsrGraph(IntBuffer offsets, IntBuffer targets, IntBuffer weights, int vertexCount, int arcCount) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.vertexCount = vertexCount;
+            this.arcCount = arcCount;
+        }
+
+        @Override public int vertexCount() { return vertexCount; }
+        @Override public int arcCount() { return arcCount; }
+        @Override public int firstArc(int u) { return offsets.get(u); }
+        @Override public int endArc(int u) { return offsets.get(u + 1); }
+        @Override public int target(int arc) { return targets.get(arc); }
+        @Override public int weight(int arc) { return weights.get(arc); }
+
+        /** Copies the mapping onto the heap, for algorithms that need mutable or array-backed graphs. */
+        public CsrGraph toCsrGraph() {
+            int[] o = new int[vertexCount + 1];
+            int[] t = new int[arcCount];
+            int[] w = new int[arcCount];
+            offsets.get(0, o);
+            targets.get(0, t);
+            weights.get(0, w);
+            return new CsrGraph(o, t, w);
+        }
+    }
+
+    public static MappedCsrGraph map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a CSR topology file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported topology file version " + version);
+            }
+            int n = header.getInt();
+            int m = header.getInt();
+            // n + 1 offsets must still be countable in an int
+            if (n < 0 || n == Integer.MAX_VALUE || m < 0) {
+                throw new IOException(file + " has a corrupt header: " + n + " vertices, " + m + " arcs");
+            }
+            long expected = HEADER_BYTES + 4L * ((long) n + 1) + 8L * m;
+            if (channel.size() < expected) {
+                throw new IOException(file + " is truncated: " + channel.size() + " bytes, expected " + expected);
+            }
+            // The mappings stay valid after the channel is closed
+            long position = HEADER_BYTES;
+            IntBuffer offsets = mapInts(channel, FileChannel.MapMode.READ_ONLY, position, (long) n + 1);
+            position += 4L * ((long) n + 1);
+            IntBuffer targets = mapInts(channel, FileChannel.MapMode.READ_ONLY, position, m);
+            position += 4L * m;
+            IntBuffer weights = mapInts(channel, FileChannel.MapMode.READ_ONLY, position, m);
+            validate(file, offsets, targets, weights, n, m);
+            return new MappedCsrGraph(offsets, targets, weights, n, m);
+        }
+    }
+
+    /**
+     * One pass over the sections, so a damaged file fails here rather than with an index out of
+     * bounds or a wrong route deep inside a search: offsets must start at 0, never decrease and end
+     * at m, every target must be a vertex, and no weight may be negative, which Dijkstra relies on.
+     */
+    private static void validate(Path file, IntBuffer offsets, IntBuffer targets, IntBuffer weights, int n, int m)
+            throws IOException {
+        int previous = offsets.get(0);
+        if (previous != 0) {
+            throw new IOException(file + ": first offset is " + previous + ", expected 0");
+        }
+        for (int u = 1; u <= n; u++) {
+            int offset = offsets.get(u);
+            if (offset < previous) {
+                throw new IOException(file + ": offsets decrease at vertex " + (u - 1));
+            }
+            previous = offset;
+        }
+        if (previous != m) {
+            throw new IOException(file + ": offsets end at " + previous + ", expected " + m + " arcs");
+        }
+        for (int arc = 0; arc < m; arc++) {
+            int target = targets.get(arc);
+            if (target < 0 || target >= n) {
+                throw new IOException(file + ": arc " + arc + " targets vertex " + target + " of " + n);
+            }
+            int weight = weights.get(arc);
+            if (weight < 0) {
+                throw new IOException(file + ": arc " + arc + " has negative weight " + weight);
+            }
+        }
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, FileChannel.MapMode mode, long position, long count) throws IOException {
+        long bytes = 4L * count;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Section of " + count + " ints exceeds the 2 GB mapping limit");
+        }
+        MappedByteBuffer buffer = channel.map(mode, position, bytes);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    public static void write(CsrGraph graph, Path file) throws IOException {
+        int n = graph.vertexCount();
+        int m = graph.arcCount();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(channel, n, m);
+            mapInts(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES, n + 1).put(graph.offsets);
+            mapInts(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES + 4L * (n + 1), m).put(graph.targets);
+            mapInts(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES + 4L * (n + 1) + 4L * m, m).put(graph.weights);
+        }
+    }
+
+    private static void writeHeader(FileChannel channel, int n, int m) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private interface EdgeVisitor {
+        void edge(int u, int v, int weight);
+    }
+
+    /**
+     * Converts an edge list to the binary format. The first pass counts degrees, the second
+     * writes each arc straight into its slot of the mapped output, so heap use is O(n)
+     * regardless of how many edges the file has.
+     */
+    public static void convert(Path edgeList, Path output, boolean undirected) throws IOException {
+        int[][] degreeHolder = {new int[1024]};
+        int[] maxVertex = {-1};
+        long[] arcCount = {0};
+        scan(edgeList, (u, v, w) -> {
+            int top = Math.max(u, v);
+            if (top >= degreeHolder[0].length) {
+                degreeHolder[0] = Arrays.copyOf(degreeHolder[0], Math.max(top + 1, degreeHolder[0].length * 2));
+            }
+            degreeHolder[0][u]++;
+            arcCount[0]++;
+            if (undirected) {
+                degreeHolder[0][v]++;
+                arcCount[0]++;
+            }
+            maxVertex[0] = Math.max(maxVertex[0], top);
+        });
+        if (arcCount[0] > Integer.MAX_VALUE) {
+            throw new IOException("Too many arcs for int offsets: " + arcCount[0]);
+        }
+        int n = maxVertex[0] + 1;
+        int m = (int) arcCount[0];
+        int[] cursor = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            cursor[u + 1] = cursor[u] + degreeHolder[0][u];
+        }
+        degreeHolder[0] = null;
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(channel, n, m);
+            mapInts(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES, n + 1).put(cursor);
+            IntBuffer targets = mapInts(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES + 4L * (n + 1), m);
+            IntBuffer weights = mapInts(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES + 4L * (n + 1) + 4L * m, m);
+            scan(edgeList, (u, v, w) -> {
+                int arc = cursor[u]++;
+                targets.put(arc, v);
+                weights.put(arc, w);
+                if (undirected) {
+                    arc = cursor[v]++;
+                    targets.put(arc, u);
+                    weights.put(arc, w);
+                }
+            });
+        }
+    }
+
+    /** Streams "u v [weight]" lines through a byte-level parser; weight defaults to 1. */
+    private static void scan(Path edgeList, EdgeVisitor visitor) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(edgeList), 1 << 16)) {
+            int[] fields = new int[3];
+            int count = 0;
+            int value = 0;
+            boolean inNumber = false;
+            boolean comment = false;
+            long line = 1;
+            int c;
+            while (true) {
+                c = in.read();
+                if (c == '\n' || c == -1) {
+                    if (inNumber) {
+                        if (count == 3) throw new IOException("Too many fields on line " + line);
+                        fields[count++] = value;
+                    }
+                    if (count == 1) throw new IOException("Incomplete edge on line " + line);
+                    if (count >= 2) {
+                        visitor.edge(fields[0], fields[1], count == 3 ? fields[2] : 1);
+                    }
+                    if (c == -1) break;
+                    count = 0;
+                    value = 0;
+                    inNumber = false;
+                    comment = false;
+                    line++;
+                } else if (comment) {
+                    // skip to end of line
+                } else if (c >= '0' && c <= '9') {
+                    int digit = c - '0';
+                    if (inNumber && value > (Integer.MAX_VALUE - 1 - digit) / 10) {
+                        // Vertex ids are stored as int and n = max id + 1 must fit as well
+                        throw new IOException("Number too large on line " + line);
+                    }
+                    value = inNumber ? value * 10 + digit : digit;
+                    inNumber = true;
+                } else if (c == ' ' || c == '\t' || c == ',' || c == '\r') {
+                    if (inNumber) {
+                        if (count == 3) throw new IOException("Too many fields on line " + line);
+                        fields[count++] = value;
+                        inNumber = false;
+                    }
+                } else if (c == '#' || c == '%') {
+                    comment = true;
+                } else {
+                    throw new IOException("Unexpected character '" + (char) c + "' on line " + line);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("convert")) {
+            boolean undirected = args.length > 3 && args[3].equals("--undirected");
+            convert(Path.of(args[1]), Path.of(args[2]), undirected);
+            MappedCsrGraph graph = map(Path.of(args[2]));
+            System.out.printf("Wrote %s: %,d vertices, %,d arcs%n", args[2], graph.vertexCount(), graph.arcCount());
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("spf")) {
+            MappedCsrGraph graph = map(Path.of(args[1]));
+            int source = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+            int[] distances = new int[graph.vertexCount()];
+            long start = System.nanoTime();
+            DijkstraOSPF.dijkstra(graph, source, distances, new IndexedDaryHeap(graph.vertexCount(), 4));
+            System.out.printf("SPF from %d over %,d vertices in %.1f ms%n", source, graph.vertexCount(), (System.nanoTime() - start) / 1e6);
+            return;
+        }
+
+        // Self-contained demo: write a 1M-router edge list, convert it, map it and route over it
+        int n = 1_000_000;
+        Path dir = Files.createTempDirectory("topology");
+        Path text = dir.resolve("edges.txt");
+        Path binary = dir.resolve("topology.csr");
+        SplittableRandom rng = new SplittableRandom(1);
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(text), 1 << 16)) {
+            out.write("# u v weight\n");
+            for (int u = 0; u < n; u++) {
+                out.write(u + " " + (u + 1) % n + " " + (1 + rng.nextInt(100)) + "\n");
+                out.write(u + " " + rng.nextInt(n) + " " + (1 + rng.nextInt(100)) + "\n");
+            }
+        }
+
+        long start = System.nanoTime();
+        convert(text, binary, true);
+        double convertMs = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        MappedCsrGraph mapped = map(binary);
+        double mapMs = (System.nanoTime() - start) / 1e6;
+        System.out.printf("Edge list %,d MB -> CSR file %,d MB in %.0f ms; mapped in %.3f ms (%,d vertices, %,d arcs)%n",
+                Files.size(text) >> 20, Files.size(binary) >> 20, convertMs, mapMs, mapped.vertexCount(), mapped.arcCount());
+
+        int[] fromMapping = new int[n];
+        IndexedDaryHeap heap = new IndexedDaryHeap(n, 4);
+        start = System.nanoTime();
+        DijkstraOSPF.dijkstra(mapped, 0, fromMapping, heap);
+        double mappedMs = (System.nanoTime() - start) / 1e6;
+        CsrGraph onHeap = mapped.toCsrGraph();
+        int[] fromHeap = new int[n];
+        start = System.nanoTime();
+        DijkstraOSPF.dijkstra(onHeap, 0, fromHeap, heap);
+        double heapMs = (System.nanoTime() - start) / 1e6;
+        if (!Arrays.equals(fromMapping, fromHeap)) {
+            throw new IllegalStateException("Mapped and heap graphs disagree");
+        }
+        System.out.printf("SPF over the mapping %.0f ms, over an on-heap copy %.0f ms%n", mappedMs, heapMs);
+
+        Files.delete(text);
+        Files.delete(binary);
+        Files.delete(dir);
+    }
+}
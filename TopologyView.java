@@ -0,0 +1,445 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Zoomable, pannable view of a large topology. Node positions are fixed world coordinates
+ * bucketed into a uniform grid, so a repaint only visits the cells under the viewport. The
+ * visible part is rasterised into an offscreen image that is rebuilt only when the view, the
+ * window size or the distances change; ordinary repaints just blit it, and a pan shifts it and
+ * rasterises only the strip that scrolled into view. Detail follows the zoom:
+ * single pixels when nodes are smaller than a pixel, plain discs in between, and node and link
+ * labels only once they are large enough to read.
+ */
+public class TopologyView extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int INF = Integer.MAX_VALUE;
+    private static final double LABEL_RADIUS_PX = 12;
+    private static final double DISC_RADIUS_PX = 1.5;
+    private static final int MAX_LABELLED_NODES = 4000;
+    /** How far a label can reach past its anchor, so regions also draw labels of nodes just outside. */
+    private static final int LABEL_MARGIN_PX = 80;
+    /** Graphs up to this size keep the white nodes of the original circle view. */
+    private static final int SMALL_GRAPH_NODES = 40;
+    private static final int SHADES = 32;
+    private static final int GREY = SHADES;
+    private static final int WHITE = SHADES + 1;
+    private static final int[] PALETTE = new int[SHADES + 2];
+
+    static {
+        for (int i = 0; i < SHADES; i++) {
+            PALETTE[i] = Color.HSBtoRGB(0.66f * (1 - i / (SHADES - 1f)), 0.8f, 0.9f) & 0xFFFFFF;
+        }
+        PALETTE[GREY] = 0xB0B0B0;
+        PALETTE[WHITE] = 0xFFFFFF;
+    }
+
+    private final CsrGraph graph;
+    private final float[] x;
+    private final float[] y;
+    private int[] distances;
+    private int maxDistance;
+
+    private final float minX, minY;
+    private final float cellSize;
+    private final int gridCols, gridRows;
+    private final int[] nodeCellStart;
+    private final int[] nodeCellItems;
+    private final int[] linkCellStart;
+    private final int[] linkArcs;
+    private final int[] linkFrom;
+    private final float maxHalfLength;
+    private final float nodeRadius;
+
+    private double scale;
+    private double originX, originY;
+    private BufferedImage layer;
+    private final BufferedImage[] sprites = new BufferedImage[PALETTE.length];
+    private int spriteDiameter;
+    private boolean spriteOutline;
+    private boolean dirty = true;
+    private boolean layerLabels;
+    private int panX, panY;
+    private long lastRenderNs;
+    private int lastDrawnNodes;
+
+    public TopologyView(CsrGraph graph, float[] x, float[] y, int[] distances) {
+        int n = graph.vertexCount();
+        if (x.length != n || y.length != n) {
+            throw new IllegalArgumentException("Need one position per router: " + n);
+        }
+        this.graph = graph;
+        this.x = x;
+        this.y = y;
+
+        float loX = Float.MAX_VALUE, loY = Float.MAX_VALUE, hiX = -Float.MAX_VALUE, hiY = -Float.MAX_VALUE;
+        for (int v = 0; v < n; v++) {
+            loX = Math.min(loX, x[v]); hiX = Math.max(hiX, x[v]);
+            loY = Math.min(loY, y[v]); hiY = Math.max(hiY, y[v]);
+        }
+        float width = Math.max(hiX - loX, 1e-3f);
+        float height = Math.max(hiY - loY, 1e-3f);
+        this.minX = loX;
+        this.minY = loY;
+        // About four routers per cell on average
+        this.cellSize = (float) Math.max(Math.sqrt(width * height * 4.0 / n), 1e-3);
+        this.gridCols = (int) (width / cellSize) + 1;
+        this.gridRows = (int) (height / cellSize) + 1;
+        this.nodeRadius = (float) (0.3 * Math.sqrt(width * height / n));
+
+        int cells = gridCols * gridRows;
+        this.nodeCellStart = new int[cells + 1];
+        this.nodeCellItems = new int[n];
+        int[] nodeCell = new int[n];
+        for (int v = 0; v < n; v++) {
+            nodeCell[v] = cellOf(x[v], y[v]);
+            nodeCellStart[nodeCell[v] + 1]++;
+        }
+        prefixSum(nodeCellStart);
+        int[] cursor = nodeCellStart.clone();
+        for (int v = 0; v < n; v++) {
+            nodeCellItems[cursor[nodeCell[v]]++] = v;
+        }
+
+        // Each link is drawn once, filed under the cell of its midpoint. A link can reach at most
+        // maxHalfLength beyond that cell, which is how far the viewport is widened when culling.
+        int links = 0;
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.offsets[u]; arc < graph.offsets[u + 1]; arc++) {
+                if (drawnOnce(u, arc)) links++;
+            }
+        }
+        this.linkCellStart = new int[cells + 1];
+        this.linkArcs = new int[links];
+        this.linkFrom = new int[links];
+        int[] linkCell = new int[links];
+        float longest = 0;
+        for (int u = 0, i = 0; u < n; u++) {
+            for (int arc = graph.offsets[u]; arc < graph.offsets[u + 1]; arc++) {
+                if (!drawnOnce(u, arc)) continue;
+                int v = graph.targets[arc];
+                linkCell[i] = cellOf((x[u] + x[v]) / 2, (y[u] + y[v]) / 2);
+                linkCellStart[linkCell[i] + 1]++;
+                longest = Math.max(longest, Math.max(Math.abs(x[u] - x[v]), Math.abs(y[u] - y[v])) / 2);
+                i++;
+            }
+        }
+        this.maxHalfLength = longest;
+        prefixSum(linkCellStart);
+        cursor = linkCellStart.clone();
+        for (int u = 0, i = 0; u < n; u++) {
+            for (int arc = graph.offsets[u]; arc < graph.offsets[u + 1]; arc++) {
+                if (!drawnOnce(u, arc)) continue;
+                int slot = cursor[linkCell[i++]]++;
+                linkArcs[slot] = arc;
+                linkFrom[slot] = u;
+            }
+        }
+
+        setDistances(distances);
+        setBackground(Color.WHITE);
+        MouseAdapter mouse = new MouseAdapter() {
+            private Point dragStart;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                int dx = e.getX() - dragStart.x;
+                int dy = e.getY() - dragStart.y;
+                originX -= dx / scale;
+                originY -= dy / scale;
+                dragStart = e.getPoint();
+                // Whole-pixel moves, so the current layer can be shifted instead of redrawn
+                panX += dx;
+                panY += dy;
+                repaint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(Math.pow(1.2, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) fitToWindow();
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    private boolean drawnOnce(int u, int arc) {
+        int v = graph.targets[arc];
+        if (u < v) return true;
+        if (u == v) return false;
+        for (int back = graph.offsets[v]; back < graph.offsets[v + 1]; back++) {
+            if (graph.targets[back] == u) return false;
+        }
+        return true;
+    }
+
+    private static void prefixSum(int[] counts) {
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+    }
+
+    private int cellOf(float wx, float wy) {
+        int col = Math.min(gridCols - 1, Math.max(0, (int) ((wx - minX) / cellSize)));
+        int row = Math.min(gridRows - 1, Math.max(0, (int) ((wy - minY) / cellSize)));
+        return row * gridCols + col;
+    }
+
+    public void setDistances(int[] distances) {
+        this.distances = distances;
+        int max = 0;
+        for (int d : distances) {
+            if (d != INF) max = Math.max(max, d);
+        }
+        this.maxDistance = max;
+        dirty = true;
+        repaint();
+    }
+
+    public void zoom(double factor, int screenX, int screenY) {
+        double worldX = originX + screenX / scale;
+        double worldY = originY + screenY / scale;
+        scale *= factor;
+        originX = worldX - screenX / scale;
+        originY = worldY - screenY / scale;
+        viewChanged();
+    }
+
+    public void fitToWindow() {
+        int w = Math.max(getWidth(), 1);
+        int h = Math.max(getHeight(), 1);
+        float margin = 2 * nodeRadius;
+        double worldW = gridCols * cellSize + 2 * margin;
+        double worldH = gridRows * cellSize + 2 * margin;
+        scale = Math.min(w / worldW, h / worldH);
+        originX = minX - margin - (w / scale - worldW) / 2;
+        originY = minY - margin - (h / scale - worldH) / 2;
+        viewChanged();
+    }
+
+    private void viewChanged() {
+        dirty = true;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        int w = getWidth();
+        int h = getHeight();
+        if (w <= 0 || h <= 0) return;
+        if (scale == 0) fitToWindow();
+        if (layer == null || layer.getWidth() != w || layer.getHeight() != h) {
+            layer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            dirty = true;
+        }
+        if (dirty) {
+            renderLayer(layer);
+        } else if (panX != 0 || panY != 0) {
+            scrollLayer(layer, panX, panY);
+        }
+        dirty = false;
+        panX = panY = 0;
+        g.drawImage(layer, 0, 0, null);
+    }
+
+    /** Rasterises the part of the topology under the current viewport into {@code image}. */
+    void renderLayer(BufferedImage image) {
+        long start = System.nanoTime();
+        layerLabels = labelsShown(image.getWidth(), image.getHeight());
+        lastDrawnNodes = render(image, 0, 0, image.getWidth(), image.getHeight(), layerLabels);
+        lastRenderNs = System.nanoTime() - start;
+    }
+
+    /**
+     * Brings {@code image} up to date after the view was panned by (dx, dy) pixels: the old content
+     * is shifted and only the uncovered strips are rasterised. Falls back to a full render when the
+     * pan changes the level of detail or moves everything off screen.
+     */
+    void scrollLayer(BufferedImage image, int dx, int dy) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        if (Math.abs(dx) >= w || Math.abs(dy) >= h || labelsShown(w, h) != layerLabels) {
+            renderLayer(image);
+            return;
+        }
+        long start = System.nanoTime();
+        Graphics2D g = image.createGraphics();
+        g.copyArea(0, 0, w, h, dx, dy);
+        g.dispose();
+        int drawn = 0;
+        if (dx != 0) {
+            drawn += render(image, dx > 0 ? 0 : w + dx, 0, Math.abs(dx), h, layerLabels);
+        }
+        if (dy != 0) {
+            drawn += render(image, 0, dy > 0 ? 0 : h + dy, w, Math.abs(dy), layerLabels);
+        }
+        lastDrawnNodes = drawn;
+        lastRenderNs = System.nanoTime() - start;
+    }
+
+    /** Labels only when nodes are big enough to carry them and few enough to leave room. */
+    private boolean labelsShown(int w, int h) {
+        if (nodeRadius * scale < LABEL_RADIUS_PX) return false;
+        int visible = 0;
+        int c0 = colOf(originX - nodeRadius), c1 = colOf(originX + w / scale + nodeRadius);
+        int r0 = rowOf(originY - nodeRadius), r1 = rowOf(originY + h / scale + nodeRadius);
+        for (int r = r0; r <= r1; r++) {
+            visible += nodeCellStart[r * gridCols + c1 + 1] - nodeCellStart[r * gridCols + c0];
+        }
+        return visible <= MAX_LABELLED_NODES;
+    }
+
+    /**
+     * Rasterises the screen rectangle (rx, ry, rw, rh) of {@code image}, clipped to it, and returns
+     * the number of routers drawn. The same rectangle always comes out the same whether it is drawn
+     * alone or as part of the whole layer.
+     */
+    private int render(BufferedImage image, int rx, int ry, int rw, int rh, boolean labels) {
+        int w = image.getWidth();
+        Graphics2D g = image.createGraphics();
+        g.clipRect(rx, ry, rw, rh);
+        g.setColor(Color.WHITE);
+        g.fillRect(rx, ry, rw, rh);
+
+        double radiusPx = nodeRadius * scale;
+        int marginPx = labels ? LABEL_MARGIN_PX : 0;
+        double pad = nodeRadius + marginPx / scale;
+        double viewMinX = originX + rx / scale - pad, viewMaxX = originX + (rx + rw) / scale + pad;
+        double viewMinY = originY + ry / scale - pad, viewMaxY = originY + (ry + rh) / scale + pad;
+        int c0 = colOf(viewMinX), c1 = colOf(viewMaxX), r0 = rowOf(viewMinY), r1 = rowOf(viewMaxY);
+        if (labels) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+
+        // Links, from the widened cell range
+        g.setColor(Color.GRAY);
+        int lc0 = colOf(viewMinX - maxHalfLength), lc1 = colOf(viewMaxX + maxHalfLength);
+        int lr0 = rowOf(viewMinY - maxHalfLength), lr1 = rowOf(viewMaxY + maxHalfLength);
+        for (int r = lr0; r <= lr1; r++) {
+            for (int i = linkCellStart[r * gridCols + lc0], end = linkCellStart[r * gridCols + lc1 + 1]; i < end; i++) {
+                int u = linkFrom[i];
+                int v = graph.targets[linkArcs[i]];
+                if (Math.max(x[u], x[v]) < viewMinX || Math.min(x[u], x[v]) > viewMaxX
+                        || Math.max(y[u], y[v]) < viewMinY || Math.min(y[u], y[v]) > viewMaxY) {
+                    continue;
+                }
+                g.drawLine(screenX(x[u]), screenY(y[u]), screenX(x[v]), screenY(y[v]));
+            }
+        }
+        if (labels) {
+            g.setColor(Color.BLACK);
+            for (int r = lr0; r <= lr1; r++) {
+                for (int i = linkCellStart[r * gridCols + lc0], end = linkCellStart[r * gridCols + lc1 + 1]; i < end; i++) {
+                    int u = linkFrom[i];
+                    int v = graph.targets[linkArcs[i]];
+                    int mx = screenX((x[u] + x[v]) / 2), my = screenY((y[u] + y[v]) / 2);
+                    if (mx >= rx - marginPx && mx < rx + rw + marginPx && my >= ry - marginPx && my < ry + rh + marginPx) {
+                        g.drawString(String.valueOf(graph.weights[linkArcs[i]]), mx, my);
+                    }
+                }
+            }
+        }
+
+        // Routers, coloured by distance from the source
+        int[] pixels = radiusPx < DISC_RADIUS_PX ? ((DataBufferInt) image.getRaster().getDataBuffer()).getData() : null;
+        int diameter = (int) Math.round(2 * radiusPx);
+        if (diameter != spriteDiameter || labels != spriteOutline) {
+            Arrays.fill(sprites, null);
+            spriteDiameter = diameter;
+            spriteOutline = labels;
+        }
+        int reach = diameter + marginPx;
+        int drawn = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int i = nodeCellStart[r * gridCols + c0], end = nodeCellStart[r * gridCols + c1 + 1]; i < end; i++) {
+                int v = nodeCellItems[i];
+                int sx = screenX(x[v]), sy = screenY(y[v]);
+                if (sx < rx - reach || sx >= rx + rw + reach || sy < ry - reach || sy >= ry + rh + reach) continue;
+                drawn++;
+                int shade = shade(v);
+                if (pixels != null) {
+                    if (sx >= rx && sx < rx + rw && sy >= ry && sy < ry + rh) pixels[sy * w + sx] = PALETTE[shade];
+                    continue;
+                }
+                g.drawImage(sprite(shade), sx - diameter / 2 - 1, sy - diameter / 2 - 1, null);
+                if (labels) {
+                    String text = distances[v] == INF ? v + " (-)" : v + " (" + distances[v] + ")";
+                    g.drawString(text, sx - g.getFontMetrics().stringWidth(text) / 2, sy + 5);
+                }
+            }
+        }
+        g.dispose();
+        return drawn;
+    }
+
+    private int colOf(double wx) {
+        return (int) Math.min(gridCols - 1, Math.max(0, Math.floor((wx - minX) / cellSize)));
+    }
+
+    private int rowOf(double wy) {
+        return (int) Math.min(gridRows - 1, Math.max(0, Math.floor((wy - minY) / cellSize)));
+    }
+
+    private int screenX(float wx) {
+        return (int) Math.round((wx - originX) * scale);
+    }
+
+    private int screenY(float wy) {
+        return (int) Math.round((wy - originY) * scale);
+    }
+
+    /** Palette index: near routers blue, far ones red, unreachable grey; the small-graph view stays white. */
+    private int shade(int v) {
+        if (distances[v] == INF) return GREY;
+        if (graph.vertexCount() <= SMALL_GRAPH_NODES) return WHITE;
+        return maxDistance == 0 ? 0 : (int) ((long) distances[v] * (SHADES - 1) / maxDistance);
+    }
+
+    /**
+     * Antialiased discs are costly to rasterise one by one, so each shade is drawn once per
+     * diameter into a small sprite and then stamped.
+     */
+    private BufferedImage sprite(int shade) {
+        BufferedImage sprite = sprites[shade];
+        if (sprite == null) {
+            int size = spriteDiameter + 2;
+            sprite = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = sprite.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(new Color(PALETTE[shade]));
+            g.fillOval(1, 1, spriteDiameter, spriteDiameter);
+            if (spriteOutline) {
+                g.setColor(Color.BLACK);
+                g.drawOval(1, 1, spriteDiameter - 1, spriteDiameter - 1);
+            }
+            g.dispose();
+            sprites[shade] = sprite;
+        }
+        return sprite;
+    }
+
+    long lastRenderNanos() {
+        return lastRenderNs;
+    }
+
+    int lastDrawnNodes() {
+        return lastDrawnNodes;
+    }
+}
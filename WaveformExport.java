@@ -0,0 +1,417 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes {@link LineEncoding} waveforms to PNG, SVG or CSV without a display. Long signals are
+ * cut into bands of a fixed number of bits, each drawn with the same chart code as the window
+ * and stacked vertically; only one band is ever held in memory, and PNG scanlines are deflated
+ * straight to the file. An image holds at most {@value #MAX_BANDS_PER_FILE} bands, and longer
+ * charts continue in numbered tile files. Independent exports run in parallel on a thread pool.
+ */
+public class WaveformExport {
+    public enum Format {PNG, SVG, CSV}
+
+    public record Job(String title, LineEncoding.Signal signal, int[] bits, Format format, Path file) {
+        public Job {
+            if (signal.bitCount() == 0) {
+                throw new IllegalArgumentException("Nothing to export for " + title + ": the signal is empty");
+            }
+            // Every tile labels its bits from this array, so a short one would fail halfway through the files.
+            if (bits.length != signal.bitCount()) {
+                throw new IllegalArgumentException(title + ": " + bits.length + " bit labels for a signal of "
+                        + signal.bitCount() + " bits");
+            }
+        }
+    }
+
+    private static final int BAND_WIDTH = 800;
+    private static final int BAND_HEIGHT = 400;
+    private static final int BITS_PER_BAND = 16;
+    /** 25,600 pixels: tall enough to scroll through, far from image viewer and int limits. */
+    static final int MAX_BANDS_PER_FILE = 64;
+
+    public static void export(Job job) throws IOException {
+        switch (job.format()) {
+            case PNG -> exportPng(job);
+            case SVG -> exportSvg(job);
+            case CSV -> exportCsv(job);
+        }
+    }
+
+    /** Runs every job on {@code pool} and waits for all of them; the first failure is rethrown. */
+    public static void exportAll(List<Job> jobs, ExecutorService pool) throws IOException, InterruptedException {
+        List<Future<?>> pending = new ArrayList<>();
+        for (Job job : jobs) {
+            pending.add(pool.submit(() -> {
+                export(job);
+                return null;
+            }));
+        }
+        IOException failure = null;
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static int bandCount(Job job) {
+        return (job.signal().bitCount() + BITS_PER_BAND - 1) / BITS_PER_BAND;
+    }
+
+    private static int tileCount(Job job) {
+        return (bandCount(job) + MAX_BANDS_PER_FILE - 1) / MAX_BANDS_PER_FILE;
+    }
+
+    /**
+     * Files an export writes: {@code job.file()} itself, or for charts over
+     * {@value #MAX_BANDS_PER_FILE} bands numbered tiles beside it (wave-1.png, wave-2.png...).
+     * CSV has no height to limit and is always one file.
+     */
+    public static List<Path> outputFiles(Job job) {
+        int tiles = tileCount(job);
+        if (job.format() == Format.CSV || tiles == 1) {
+            return List.of(job.file());
+        }
+        String name = job.file().getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        String pattern = "%s-%0" + String.valueOf(tiles).length() + "d%s";
+        List<Path> files = new ArrayList<>(tiles);
+        for (int tile = 0; tile < tiles; tile++) {
+            files.add(job.file().resolveSibling(String.format(pattern, stem, tile + 1, extension)));
+        }
+        return files;
+    }
+
+    private static String bandTitle(Job job, int band, int bands) {
+        return bands == 1 ? job.title() : job.title() + " (" + (band + 1) + "/" + bands + ")";
+    }
+
+    private static void exportPng(Job job) throws IOException {
+        int bands = bandCount(job);
+        BufferedImage image = new BufferedImage(BAND_WIDTH, BAND_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        int[] row = new int[BAND_WIDTH];
+        byte[] scanline = new byte[1 + 3 * BAND_WIDTH];
+        List<Path> files = outputFiles(job);
+        for (int tile = 0; tile < files.size(); tile++) {
+            int firstBand = tile * MAX_BANDS_PER_FILE;
+            int endBand = Math.min(bands, firstBand + MAX_BANDS_PER_FILE);
+            writePngTile(job, files.get(tile), firstBand, endBand, bands, image, row, scanline);
+        }
+    }
+
+    private static void writePngTile(Job job, Path file, int firstBand, int endBand, int bands, BufferedImage image,
+                                     int[] row, byte[] scanline) throws IOException {
+        try (PngWriter png = new PngWriter(file, BAND_WIDTH, (endBand - firstBand) * BAND_HEIGHT)) {
+            for (int band = firstBand; band < endBand; band++) {
+                Graphics2D g2 = image.createGraphics();
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                int first = band * BITS_PER_BAND;
+                LineEncoding.drawChart(new LineEncoding.GraphicsSurface(g2), BAND_WIDTH, BAND_HEIGHT, job.signal(), job.bits(),
+                        first, Math.min(BITS_PER_BAND, job.signal().bitCount() - first), bandTitle(job, band, bands));
+                g2.dispose();
+                for (int y = 0; y < BAND_HEIGHT; y++) {
+                    image.getRGB(0, y, BAND_WIDTH, 1, row, 0, BAND_WIDTH);
+                    for (int x = 0, i = 1; x < BAND_WIDTH; x++) {
+                        scanline[i++] = (byte) (row[x] >>> 16);
+                        scanline[i++] = (byte) (row[x] >>> 8);
+                        scanline[i++] = (byte) row[x];
+                    }
+                    png.writeScanline(scanline);
+                }
+            }
+        }
+    }
+
+    /**
+     * Minimal streaming PNG encoder: 8-bit RGB, no filtering, scanlines deflated into IDAT
+     * chunks as they arrive, so the image never has to exist in memory as a whole.
+     */
+    static final class PngWriter implements Closeable {
+        private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+        private final DataOutputStream out;
+        private final DeflaterOutputStream idat;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+        PngWriter(Path file, int width, int height) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            try {
+                out.write(SIGNATURE);
+                ByteArrayOutputStream header = new ByteArrayOutputStream();
+                DataOutputStream ihdr = new DataOutputStream(header);
+                ihdr.writeInt(width);
+                ihdr.writeInt(height);
+                ihdr.write(new byte[]{8, 2, 0, 0, 0});
+                chunk("IHDR", header.toByteArray(), header.size());
+            } catch (IOException | RuntimeException e) {
+                // The caller never gets a writer to close, so release the file and the deflater here.
+                deflater.end();
+                try {
+                    out.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+            OutputStream chunks = new OutputStream() {
+                private final byte[] buffer = new byte[1 << 16];
+                private int size;
+
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    while (len > 0) {
+                        int n = Math.min(len, buffer.length - size);
+                        System.arraycopy(b, off, buffer, size, n);
+                        size += n;
+                        off += n;
+                        len -= n;
+                        if (size == buffer.length) flush();
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    if (size > 0) {
+                        chunk("IDAT", buffer, size);
+                        size = 0;
+                    }
+                }
+            };
+            this.idat = new DeflaterOutputStream(chunks, deflater, 1 << 16);
+        }
+
+        /** One row: a filter-type byte (0) followed by width RGB triples. */
+        void writeScanline(byte[] scanline) throws IOException {
+            idat.write(scanline);
+        }
+
+        private void chunk(String type, byte[] data, int length) throws IOException {
+            byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+            CRC32 crc = new CRC32();
+            crc.update(typeBytes);
+            crc.update(data, 0, length);
+            out.writeInt(length);
+            out.write(typeBytes);
+            out.write(data, 0, length);
+            out.writeInt((int) crc.getValue());
+        }
+
+        @Override
+        public void close() throws IOException {
+            idat.finish();
+            idat.flush();
+            deflater.end();
+            chunk("IEND", new byte[0], 0);
+            out.close();
+        }
+    }
+
+    private static void exportSvg(Job job) throws IOException {
+        int bands = bandCount(job);
+        List<Path> files = outputFiles(job);
+        for (int tile = 0; tile < files.size(); tile++) {
+            int firstBand = tile * MAX_BANDS_PER_FILE;
+            writeSvgTile(job, files.get(tile), firstBand, Math.min(bands, firstBand + MAX_BANDS_PER_FILE), bands);
+        }
+    }
+
+    private static void writeSvgTile(Job job, Path file, int firstBand, int endBand, int bands) throws IOException {
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + BAND_WIDTH + "\" height=\""
+                    + (endBand - firstBand) * BAND_HEIGHT + "\" font-family=\"Arial\">\n");
+            SvgSurface surface = new SvgSurface(out);
+            for (int band = firstBand; band < endBand; band++) {
+                out.write("<g transform=\"translate(0," + (band - firstBand) * BAND_HEIGHT + ")\">\n");
+                int first = band * BITS_PER_BAND;
+                LineEncoding.drawChart(surface, BAND_WIDTH, BAND_HEIGHT, job.signal(), job.bits(),
+                        first, Math.min(BITS_PER_BAND, job.signal().bitCount() - first), bandTitle(job, band, bands));
+                surface.rethrow();
+                out.write("</g>\n");
+            }
+            out.write("</svg>\n");
+        }
+    }
+
+    /** Chart primitives as SVG elements; a write failure is kept and rethrown after the band. */
+    static final class SvgSurface implements LineEncoding.Surface {
+        private final Writer out;
+        private final StringBuilder element = new StringBuilder(256);
+        private IOException failure;
+
+        SvgSurface(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void fillRect(Color color, int x, int y, int width, int height) {
+            element.append("<rect x=\"").append(x).append("\" y=\"").append(y).append("\" width=\"").append(width)
+                    .append("\" height=\"").append(height).append("\" fill=\"").append(hex(color)).append("\"/>\n");
+            flush();
+        }
+
+        @Override
+        public void line(Color color, float strokeWidth, double x1, double y1, double x2, double y2) {
+            element.append("<line x1=\"").append(round(x1)).append("\" y1=\"").append(round(y1))
+                    .append("\" x2=\"").append(round(x2)).append("\" y2=\"").append(round(y2))
+                    .append("\" stroke=\"").append(hex(color)).append("\" stroke-width=\"").append(strokeWidth).append("\"/>\n");
+            flush();
+        }
+
+        @Override
+        public void polyline(Color color, float strokeWidth, double[] points, int count) {
+            element.append("<polyline fill=\"none\" stroke=\"").append(hex(color)).append("\" stroke-width=\"")
+                    .append(strokeWidth).append("\" points=\"");
+            for (int i = 0; i < count; i++) {
+                element.append(round(points[2 * i])).append(',').append(round(points[2 * i + 1])).append(' ');
+            }
+            element.append("\"/>\n");
+            flush();
+        }
+
+        @Override
+        public void text(Color color, Font font, String text, double x, double y, boolean vertical) {
+            element.append("<text x=\"").append(round(x)).append("\" y=\"").append(round(y))
+                    .append("\" font-size=\"").append(font.getSize()).append('"');
+            if (font.isBold()) element.append(" font-weight=\"bold\"");
+            if (vertical) {
+                element.append(" transform=\"rotate(-90 ").append(round(x)).append(' ').append(round(y)).append(")\"");
+            }
+            element.append(" fill=\"").append(hex(color)).append("\">");
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '<' -> element.append("&lt;");
+                    case '>' -> element.append("&gt;");
+                    case '&' -> element.append("&amp;");
+                    default -> element.append(c);
+                }
+            }
+            element.append("</text>\n");
+            flush();
+        }
+
+        private void flush() {
+            try {
+                out.append(element);
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+            element.setLength(0);
+        }
+
+        void rethrow() throws IOException {
+            if (failure != null) throw failure;
+        }
+
+        private static String hex(Color color) {
+            return String.format("#%06x", color.getRGB() & 0xFFFFFF);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+
+    /** One row per sample at the signal's sample rate, streamed from its lazy sample iterator. */
+    private static void exportCsv(Job job) throws IOException {
+        LineEncoding.Signal signal = job.signal();
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(job.file(), StandardCharsets.US_ASCII), 1 << 16)) {
+            out.write("sample,bit,level\n");
+            long index = 0;
+            for (PrimitiveIterator.OfDouble samples = signal.samples(); samples.hasNext(); index++) {
+                int level = (int) samples.nextDouble();
+                out.write(Long.toString(index));
+                out.write(',');
+                out.write(Long.toString(index / LineEncoding.Signal.SAMPLES_PER_BIT));
+                out.write(',');
+                out.write(Integer.toString(level));
+                out.write('\n');
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        Path dir = Path.of(args.length > 0 ? args[0] : "waveforms");
+        int bytes = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+        Files.createDirectories(dir);
+
+        byte[] data = new byte[bytes];
+        new Random(3).nextBytes(data);
+        int[] bits = LineEncoding.bitsOf(data);
+        String[] titles = {"Unipolar NRZ", "Polar NRZ", "NRZ Inverted", "Bipolar Encoding",
+                "Manchester Encoding", "Differential Manchester Encoding"};
+        LineEncoding.Signal[] signals = {LineEncoding.unipolarNRZ(bits), LineEncoding.polarNRZ(bits),
+                LineEncoding.nrzInverted(bits), LineEncoding.bipolarEncoding(bits),
+                LineEncoding.manchesterEncoding(bits), LineEncoding.differentialManchesterEncoding(bits)};
+
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < signals.length; i++) {
+            String base = titles[i].toLowerCase().replace(' ', '-');
+            for (Format format : Format.values()) {
+                jobs.add(new Job(titles[i], signals[i], bits, format, dir.resolve(base + "." + format.name().toLowerCase())));
+            }
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            exportAll(jobs, pool);
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long total = 0;
+        int files = 0;
+        for (Job job : jobs) {
+            for (Path file : outputFiles(job)) {
+                total += Files.size(file);
+                files++;
+            }
+        }
+        long peakHeap = 0;
+        for (MemoryPoolMXBean memory : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memory.getType() == MemoryType.HEAP) {
+                peakHeap += memory.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%d files (%,d bits each, %d bands of %d bits, %d per image) in %s: %,d KB in %.2f s on %d threads, peak heap %,d MB%n",
+                files, bits.length, bandCount(jobs.get(0)), BITS_PER_BAND, MAX_BANDS_PER_FILE, dir, total >> 10, seconds,
+                threads, peakHeap >> 20);
+    }
+}
@@ -0,0 +1,41 @@
+package cnlab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** {@code CRC.calculateCRC} over a payload written out as a '0'/'1' string, the way the lab program holds it. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrcBenchmark {
+    private static final MethodHandle CALCULATE_CRC = LabMethods.method("CRC", "calculateCRC", String.class);
+
+    @Param({"1024", "1048576"})
+    public int payloadBytes;
+
+    private String message;
+
+    @Setup
+    public void setUp() {
+        byte[] payload = new byte[payloadBytes];
+        new Random(42).nextBytes(payload);
+        StringBuilder bits = new StringBuilder(payloadBytes * 8);
+        for (byte b : payload) {
+            for (int i = 7; i >= 0; i--) {
+                bits.append((b >> i & 1) == 0 ? '0' : '1');
+            }
+        }
+        message = bits.toString();
+    }
+
+    @Benchmark
+    public int calculateCRC() throws Throwable {
+        return (int) CALCULATE_CRC.invokeExact(message);
+    }
+}
@@ -0,0 +1,105 @@
+package cnlab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full shortest-path tree per invocation. {@code csr} and {@code matrix} run on the very same random
+ * sparse topology, converted to an adjacency matrix for the original version, so their scores compare
+ * directly; setup checks that both give identical distances. {@code csrLarge} runs the CSR search alone
+ * on 10^5 and 10^6 routers, where the matrix no longer fits in memory. The CSR runs reuse one distance
+ * array and heap the way the routing code does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DijkstraBenchmark {
+    private static final Class<?> ADJACENCY = LabMethods.labClass("CsrAdjacency");
+    private static final Class<?> HEAP = LabMethods.labClass("IndexedDaryHeap");
+    private static final MethodHandle RANDOM_SPARSE =
+            LabMethods.method("CsrGraph", "randomSparse", int.class, int.class, int.class, long.class);
+    private static final MethodHandle TO_MATRIX = LabMethods.method("CsrGraph", "toMatrix");
+    private static final MethodHandle NEW_HEAP = LabMethods.constructor("IndexedDaryHeap", int.class, int.class);
+    private static final MethodHandle DIJKSTRA_CSR =
+            LabMethods.method("DijkstraOSPF", "dijkstra", ADJACENCY, int.class, int[].class, HEAP);
+    private static final MethodHandle DIJKSTRA_MATRIX =
+            LabMethods.method("DijkstraOSPF", "dijkstra", int[][].class, int.class);
+
+    private static final int AVERAGE_DEGREE = 4;
+    private static final int MAX_WEIGHT = 100;
+    private static final long SEED = 42L;
+
+    /** A CSR topology with its own distance array and heap, cycling through sources. */
+    abstract static class CsrTopology {
+        Object graph;
+        Object heap;
+        int[] distances;
+        int nextSource;
+
+        void build(int routers) throws Throwable {
+            graph = (Object) RANDOM_SPARSE.invokeExact(routers, AVERAGE_DEGREE, MAX_WEIGHT, SEED);
+            heap = (Object) NEW_HEAP.invokeExact(routers, 4);
+            distances = new int[routers];
+        }
+
+        int source() {
+            nextSource = (nextSource + 7919) % distances.length;
+            return nextSource;
+        }
+    }
+
+    /** Small enough for the n^2 matrix, which is built from the same graph the CSR search uses. */
+    @State(Scope.Benchmark)
+    public static class SharedTopology extends CsrTopology {
+        @Param({"2000", "10000"})
+        public int routers;
+
+        int[][] matrix;
+
+        @Setup
+        public void setUp() throws Throwable {
+            build(routers);
+            matrix = (int[][]) TO_MATRIX.invokeExact(graph);
+            for (int source = 0; source < routers; source += Math.max(1, routers / 8)) {
+                DIJKSTRA_CSR.invokeExact(graph, source, distances, heap);
+                int[] expected = (int[]) DIJKSTRA_MATRIX.invokeExact(matrix, source);
+                if (!Arrays.equals(expected, distances)) {
+                    throw new IllegalStateException("CSR and matrix distances differ from source " + source);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LargeTopology extends CsrTopology {
+        @Param({"100000", "1000000"})
+        public int routers;
+
+        @Setup
+        public void setUp() throws Throwable {
+            build(routers);
+        }
+    }
+
+    @Benchmark
+    public int[] csr(SharedTopology topology) throws Throwable {
+        DIJKSTRA_CSR.invokeExact(topology.graph, topology.source(), topology.distances, topology.heap);
+        return topology.distances;
+    }
+
+    @Benchmark
+    public int[] matrix(SharedTopology topology) throws Throwable {
+        return (int[]) DIJKSTRA_MATRIX.invokeExact(topology.matrix, topology.source());
+    }
+
+    @Benchmark
+    public int[] csrLarge(LargeTopology topology) throws Throwable {
+        DIJKSTRA_CSR.invokeExact(topology.graph, topology.source(), topology.distances, topology.heap);
+        return topology.distances;
+    }
+}
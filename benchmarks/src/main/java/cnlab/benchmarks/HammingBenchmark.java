@@ -0,0 +1,64 @@
+package cnlab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code HammingCode.encodeHamming} and {@code detectAndCorrectError} over a batch of 12-bit codewords, one
+ * per 7-bit character. Every eighth word gets a single-bit error, which the correction then undoes, so the
+ * batch is in the same state at the start of every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HammingBenchmark {
+    private static final MethodHandle CONVERT = LabMethods.method("HammingCode", "convertToHammingCode", String.class);
+    private static final MethodHandle ENCODE = LabMethods.method("HammingCode", "encodeHamming", int[].class);
+    private static final MethodHandle DETECT_AND_CORRECT = LabMethods.method("HammingCode", "detectAndCorrectError", int[].class);
+
+    @Param({"4096", "1048576"})
+    public int codewords;
+
+    private int[][] words;
+    private int[] errorBits;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Random random = new Random(42);
+        words = new int[codewords][];
+        errorBits = new int[codewords];
+        for (int i = 0; i < codewords; i++) {
+            String ascii = Integer.toBinaryString(0x80 | random.nextInt(128)).substring(1);
+            words[i] = (int[]) CONVERT.invokeExact(ascii);
+            ENCODE.invokeExact(words[i]);
+            errorBits[i] = (i & 7) == 0 ? random.nextInt(12) : -1;
+        }
+    }
+
+    @Benchmark
+    public int[][] encodeHamming() throws Throwable {
+        for (int[] word : words) {
+            ENCODE.invokeExact(word);
+        }
+        return words;
+    }
+
+    @Benchmark
+    public int detectAndCorrectError() throws Throwable {
+        int syndromes = 0;
+        for (int i = 0; i < words.length; i++) {
+            int[] word = words[i];
+            if (errorBits[i] >= 0) {
+                word[errorBits[i]] ^= 1;
+            }
+            syndromes += (int) DETECT_AND_CORRECT.invokeExact(word);
+        }
+        return syndromes;
+    }
+}
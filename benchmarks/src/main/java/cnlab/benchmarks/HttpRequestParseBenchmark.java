@@ -0,0 +1,98 @@
+package cnlab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Request parsing as {@code BasicHTTPServer.ClientHandler} does it, reading from in-memory streams instead of
+ * sockets. {@code parseOne} is the per-request cost; {@code parseConcurrent} pushes a burst of requests
+ * through a pool of the same size as the server's, each task wrapping its own reader as a handler would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpRequestParseBenchmark {
+    private static final MethodHandle PARSE_REQUEST =
+            LabMethods.method("BasicHTTPServer", "parseRequest", BufferedReader.class);
+    private static final String[] PATHS = {"/http1.0", "/http1.1", "/http2.0", "/error?code=404", "/missing"};
+
+    @Param({"4096"})
+    public int requests;
+
+    private byte[][] rawRequests;
+    private ExecutorService pool;
+    private List<Callable<Object>> tasks;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        rawRequests = new byte[requests][];
+        for (int i = 0; i < requests; i++) {
+            String request = "GET " + PATHS[i % PATHS.length] + " HTTP/1.1\r\n" +
+                    "Host: localhost:8080\r\n" +
+                    "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:128.0) Gecko/20100101 Firefox/128.0\r\n" +
+                    "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8\r\n" +
+                    "Accept-Language: en-US,en;q=0.5\r\n" +
+                    "Accept-Encoding: gzip, deflate, br\r\n" +
+                    "Connection: keep-alive\r\n" +
+                    "Cookie: session=" + Integer.toHexString(i * 0x9E3779B9) + "\r\n" +
+                    "Upgrade-Insecure-Requests: 1\r\n" +
+                    "Cache-Control: max-age=0\r\n" +
+                    "\r\n";
+            rawRequests[i] = request.getBytes(StandardCharsets.UTF_8);
+        }
+        pool = Executors.newFixedThreadPool(10);
+        tasks = new ArrayList<>(requests);
+        for (byte[] raw : rawRequests) {
+            tasks.add(() -> parse(raw));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static Object parse(byte[] raw) throws Exception {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(raw)))) {
+            return (Object) PARSE_REQUEST.invokeExact(in);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object parseOne() throws Exception {
+        next = next + 1 == requests ? 0 : next + 1;
+        return parse(rawRequests[next]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int parseConcurrent() throws Exception {
+        int parsed = 0;
+        for (Future<Object> result : pool.invokeAll(tasks)) {
+            if (result.get() != null) {
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+}
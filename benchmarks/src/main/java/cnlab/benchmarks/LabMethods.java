@@ -0,0 +1,72 @@
+package cnlab.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Access to the lab classes, which live in the unnamed package and so cannot be imported from here (JMH
+ * also refuses benchmarks in the unnamed package). Handles are looked up once and kept in static final
+ * fields, so the JIT inlines them like a direct call. Lab types in a signature are erased to Object.
+ */
+final class LabMethods {
+    private LabMethods() {
+    }
+
+    static Class<?> labClass(String name) {
+        try {
+            return Class.forName(name, true, LabMethods.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Lab class not on the classpath: " + name, e);
+        }
+    }
+
+    /** A method of {@code owner}, private ones included; an instance method takes its receiver first. */
+    static MethodHandle method(String owner, String name, Class<?>... parameterTypes) {
+        try {
+            Class<?> type = labClass(owner);
+            Method method = type.getDeclaredMethod(name, parameterTypes);
+            return erase(lookup(type).unreflect(method));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No method " + owner + "." + name, e);
+        }
+    }
+
+    static MethodHandle constructor(String owner, Class<?>... parameterTypes) {
+        try {
+            Class<?> type = labClass(owner);
+            Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+            return erase(lookup(type).unreflectConstructor(constructor));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No constructor for " + owner, e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object enumConstant(String owner, String name) {
+        return Enum.valueOf((Class<? extends Enum>) labClass(owner), name);
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isLabType(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isLabType(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    private static boolean isLabType(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray() && type.getClassLoader() == LabMethods.class.getClassLoader();
+    }
+}
@@ -0,0 +1,63 @@
+package cnlab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** The table-driven {@code LineCodec}, encoding and decoding a megabyte payload into reused buffers. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineCodecBenchmark {
+    private static final Class<?> SCHEME = LabMethods.labClass("LineCodec$Scheme");
+    private static final MethodHandle NEW_CODEC = LabMethods.constructor("LineCodec", SCHEME);
+    private static final MethodHandle SYMBOLS_PER_BYTE = LabMethods.method("LineCodec$Scheme", "symbolsPerByte");
+    private static final MethodHandle ENCODE =
+            LabMethods.method("LineCodec", "encode", byte[].class, int.class, int.class, byte[].class, int.class);
+    private static final MethodHandle DECODE =
+            LabMethods.method("LineCodec", "decode", byte[].class, int.class, int.class, byte[].class, int.class);
+    private static final MethodHandle RESET = LabMethods.method("LineCodec", "reset");
+
+    @Param({"NRZ_L", "NRZ_I", "AMI", "MANCHESTER", "DIFFERENTIAL_MANCHESTER", "MLT_3", "FOUR_B_FIVE_B",
+            "EIGHT_B_TEN_B"})
+    public String scheme;
+
+    @Param({"1048576"})
+    public int payloadBytes;
+
+    private Object encoder;
+    private Object decoder;
+    private byte[] payload;
+    private byte[] symbols;
+    private byte[] decoded;
+    private int symbolCount;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Object value = LabMethods.enumConstant("LineCodec$Scheme", scheme);
+        encoder = (Object) NEW_CODEC.invokeExact(value);
+        decoder = (Object) NEW_CODEC.invokeExact(value);
+        payload = new byte[payloadBytes];
+        new Random(42).nextBytes(payload);
+        symbols = new byte[payloadBytes * (int) SYMBOLS_PER_BYTE.invokeExact(value)];
+        decoded = new byte[payloadBytes];
+        symbolCount = (int) ENCODE.invokeExact(encoder, payload, 0, payloadBytes, symbols, 0);
+    }
+
+    @Benchmark
+    public int encode() throws Throwable {
+        RESET.invokeExact(encoder);
+        return (int) ENCODE.invokeExact(encoder, payload, 0, payloadBytes, symbols, 0);
+    }
+
+    @Benchmark
+    public int decode() throws Throwable {
+        RESET.invokeExact(decoder);
+        return (int) DECODE.invokeExact(decoder, symbols, 0, symbolCount, decoded, 0);
+    }
+}
@@ -0,0 +1,70 @@
+package cnlab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code LineEncoding} encoders turning a megabyte payload into half-bit signal levels. Each encoder
+ * has its own static final handle, so the JIT inlines the one picked in setup and the score holds no
+ * dynamic {@code invokeExact} dispatch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LineEncodingBenchmark {
+    private static final MethodHandle BITS_OF = LabMethods.method("LineEncoding", "bitsOf", byte[].class);
+    private static final MethodHandle UNIPOLAR_NRZ = encoder("unipolarNRZ");
+    private static final MethodHandle POLAR_NRZ = encoder("polarNRZ");
+    private static final MethodHandle NRZ_INVERTED = encoder("nrzInverted");
+    private static final MethodHandle BIPOLAR = encoder("bipolarEncoding");
+    private static final MethodHandle MANCHESTER = encoder("manchesterEncoding");
+    private static final MethodHandle DIFFERENTIAL_MANCHESTER = encoder("differentialManchesterEncoding");
+
+    @Param({"unipolarNRZ", "polarNRZ", "nrzInverted", "bipolarEncoding", "manchesterEncoding",
+            "differentialManchesterEncoding"})
+    public String encoder;
+
+    @Param({"1048576"})
+    public int payloadBytes;
+
+    private int scheme;
+    private int[] bits;
+
+    private static MethodHandle encoder(String name) {
+        return LabMethods.method("LineEncoding", name, int[].class);
+    }
+
+    @Setup
+    public void setUp() throws Throwable {
+        scheme = switch (encoder) {
+            case "unipolarNRZ" -> 0;
+            case "polarNRZ" -> 1;
+            case "nrzInverted" -> 2;
+            case "bipolarEncoding" -> 3;
+            case "manchesterEncoding" -> 4;
+            case "differentialManchesterEncoding" -> 5;
+            default -> throw new IllegalArgumentException("Unknown encoder: " + encoder);
+        };
+        byte[] payload = new byte[payloadBytes];
+        new Random(42).nextBytes(payload);
+        bits = (int[]) BITS_OF.invokeExact(payload);
+    }
+
+    @Benchmark
+    public Object encode() throws Throwable {
+        return switch (scheme) {
+            case 0 -> (Object) UNIPOLAR_NRZ.invokeExact(bits);
+            case 1 -> (Object) POLAR_NRZ.invokeExact(bits);
+            case 2 -> (Object) NRZ_INVERTED.invokeExact(bits);
+            case 3 -> (Object) BIPOLAR.invokeExact(bits);
+            case 4 -> (Object) MANCHESTER.invokeExact(bits);
+            default -> (Object) DIFFERENTIAL_MANCHESTER.invokeExact(bits);
+        };
+    }
+}